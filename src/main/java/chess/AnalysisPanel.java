@@ -0,0 +1,222 @@
+package chess;
+
+import engine.Search;
+import engine.TranspositionTable;
+import perft.PerftSuite;
+import pieces.Move;
+import pieces.Position;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * This is the AnalysisPanel Class.
+ * It shows what the engine makes of the position on the board: the depth searched, the score for White, the speed
+ * of the search and the line of play it expects, best move first, which is also the hint for the side to move.
+ * The search runs on a worker thread for as long as the position stands and hands every finished iteration to the
+ * panel, so the event dispatch thread only ever sets a few labels.
+ * A new position stops the search of the old one without waiting for it to end and starts a new one.
+ */
+public class AnalysisPanel extends JPanel
+{
+	private static final long serialVersionUID = 1L;
+	private static final int HASH=8;                                 //Size of the analysis table in megabytes
+
+	private final JCheckBox analyse;
+	private final JLabel depth,score,speed,line;
+	private final TranspositionTable table=new TranspositionTable(HASH);
+	private Position position;
+	private Analysis worker;
+	private int shown;                               //Depth of the iteration on display
+	private long slowest;                            //Longest time the panel held the event dispatch thread, in nanoseconds
+
+	public AnalysisPanel()
+	{
+		super(new BorderLayout());
+		setBorder(BorderFactory.createTitledBorder(null, "Analysis", TitledBorder.TOP,TitledBorder.CENTER, new Font("times new roman",Font.BOLD,18), Color.DARK_GRAY));
+		analyse=new JCheckBox("Analyse");
+		analyse.setName("analyse");
+		analyse.addActionListener(e->setanalysing(analyse.isSelected()));
+		depth=new JLabel("Depth  : -");
+		score=new JLabel("Score  : -");
+		speed=new JLabel("Speed  : -");
+		//A plain label, as a text area takes longer than a frame to show its first text. A long line is cut short,
+		//and shown in full as the tool tip
+		line=new JLabel(" ");
+		line.setName("line");
+		JPanel stats=new JPanel(new GridLayout(5,1));
+		stats.add(analyse);
+		stats.add(depth);
+		stats.add(score);
+		stats.add(speed);
+		stats.add(line);
+		add(stats,BorderLayout.NORTH);
+	}
+
+	//Function to analyse a new position, or none if it is null. Any analysis of the old position is stopped
+	public void analyse(Position pos)
+	{
+		long start=System.nanoTime();
+		halt();
+		position=pos==null?null:new Position(pos);
+		if(position!=null&&analyse.isSelected())
+			begin();
+		timed(start);
+	}
+
+	//Function to switch the analysis on or off
+	public void setanalysing(boolean on)
+	{
+		long start=System.nanoTime();
+		analyse.setSelected(on);
+		halt();
+		if(on&&position!=null)
+			begin();
+		timed(start);
+	}
+
+	public boolean isanalysing()
+	{
+		return analyse.isSelected();
+	}
+
+	//Function to start the search of the current position on a worker thread
+	private void begin()
+	{
+		shown=0;
+		depth.setText("Depth  : -");
+		score.setText("Score  : -");
+		speed.setText("Speed  : -");
+		line.setText(" ");
+		line.setToolTipText(null);
+		worker=new Analysis(position);
+		worker.execute();
+	}
+
+	//Function to stop the search, if there is one, without waiting for it
+	private void halt()
+	{
+		if(worker!=null)
+		{
+			worker.halt();
+			worker=null;
+		}
+	}
+
+	private void show(Iteration it)
+	{
+		shown=it.depth;
+		depth.setText("Depth  : "+it.depth);
+		score.setText("Score  : "+it.score);
+		speed.setText("Speed  : "+it.nps/1000+" kN/s");
+		line.setText(it.line);
+		line.setToolTipText(it.line);
+	}
+
+	private void timed(long start)
+	{
+		slowest=Math.max(slowest,System.nanoTime()-start);
+	}
+
+	//Depth of the iteration on display, 0 before the first one
+	int shown()
+	{
+		return shown;
+	}
+
+	//Text of the line of play on display, best move first
+	String line()
+	{
+		return line.getText();
+	}
+
+	//Longest time the panel held the event dispatch thread for one event, in nanoseconds
+	long slowest()
+	{
+		return slowest;
+	}
+
+	//The worker that searches one position. Even the search is set up on the worker thread, as building it
+	//takes longer than the event dispatch thread can spare
+	private class Analysis extends SwingWorker<Integer,Iteration>
+	{
+		private final Position pos;
+		private volatile Search search;
+		private volatile boolean halted;
+
+		Analysis(Position pos)
+		{
+			this.pos=pos;
+		}
+
+		@Override
+		protected Integer doInBackground()
+		{
+			Search s=new Search(table,null);
+			//A halt that comes just as the search starts is lost to it, so the search also ends at its first
+			//iteration after the halt
+			s.setlistener(x->
+			{
+				if(halted)
+					x.stop();
+				else
+					publish(new Iteration(x,pos.side()));
+			});
+			search=s;
+			if(halted)
+				return Move.NONE;
+			return s.search(pos,Search.MAXPLY,Search.FOREVER);
+		}
+
+		@Override
+		protected void process(List<Iteration> iterations)
+		{
+			//Iterations of a position that is gone are dropped, and of several only the last is shown
+			if(worker!=this)
+				return;
+			long start=System.nanoTime();
+			show(iterations.get(iterations.size()-1));
+			timed(start);
+		}
+
+		void halt()
+		{
+			halted=true;
+			Search s=search;
+			if(s!=null)
+				s.stop();
+		}
+	}
+
+	//The results of one finished iteration, read off the search on its own thread
+	static class Iteration
+	{
+		final int depth;
+		final String score,line;
+		final long nps;
+
+		Iteration(Search search,int side)
+		{
+			depth=search.depth();
+			int value=search.score();
+			if(Math.abs(value)>=Search.MATE-Search.MAXPLY)
+			{
+				//Moves to mate, negative when White is the one mated
+				int moves=value>0?(Search.MATE-value+1)/2:(Search.MATE+value)/2;
+				score=((value>0)==(side==Position.WHITE)?"#":"#-")+moves;
+			}
+			else
+			{
+				int white=side==Position.WHITE?value:-value;
+				score=String.format("%+.2f",white/100.0);
+			}
+			nps=PerftSuite.nps(search.nodes(),search.elapsed());
+			StringBuilder sb=new StringBuilder();
+			for(int move:search.pv())
+				sb.append(sb.length()>0?" ":"").append(Move.tostring(move));
+			line=sb.toString();
+		}
+	}
+}
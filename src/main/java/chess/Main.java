@@ -1,5 +1,9 @@
 package chess;
 
+import engine.ParallelSearch;
+import engine.Search;
+import engine.TimeManager;
+import engine.TranspositionTable;
 import pieces.*;
 
 import javax.imageio.ImageIO;
@@ -47,6 +51,10 @@ public class Main extends JFrame implements MouseListener
 	private Cell c,previous;
 	private int chance=0;
 	public Cell boardState[][];
+	//The game as the rules and the engine see it. Moves are played on it and the cells only draw what it holds.
+	//A board set up cell by cell, as tests do by replacing boardState, is read in once when it is first asked about
+	private Position position;
+	private Cell drawn[][];                          //The cells the position was read from
 	private ArrayList<Cell> destinationlist = new ArrayList<Cell>();
 	private Player White=null,Black=null;
 	private JPanel board=new JPanel(new GridLayout(8,8));
@@ -73,7 +81,17 @@ public class Main extends JFrame implements MouseListener
 	private String[] WNames={},BNames={};
 	private JSlider timeSlider;
 	private BufferedImage image;
-	private JButton start,wselect,bselect,WNewPlayer,BNewPlayer;
+	private JButton start,wselect,bselect,WNewPlayer,BNewPlayer,WComputer,BComputer;
+	private boolean computer[]=new boolean[2];        //Set for the colors played by the engine
+	private static final int THREADS=Runtime.getRuntime().availableProcessors();   //Threads the engine searches on
+	private TranspositionTable table=new TranspositionTable(Search.DEFAULT_HASH);   //Kept from move to move
+	private Engine thinking;
+	private Engine pondering;                        //Search of the engine on the opponent's time
+	private int predicted=Move.NONE,played=Move.NONE; //Reply the engine expects and the move the opponent played
+	private boolean ponderhit;
+	private AnalysisPanel analysis;                  //Search of the position on the board for the players to see
+	private static final String COMPUTER="Computer";
+	private static final long MAXTHINK=10000;        //The engine never thinks longer than this, in milliseconds
 	public static int timeRemaining=60;
 	public static void main(String[] args){
 	
@@ -101,8 +119,8 @@ public class Main extends JFrame implements MouseListener
 		bb02=new Bishop("BB02","/Black_Bishop.png",1);
 		wq=new Queen("WQ","/White_Queen.png",0);
 		bq=new Queen("BQ","/Black_Queen.png",1);
-		wk=new King("WK","/White_King.png",0,7,3);
-		bk=new King("BK","/Black_King.png",1,0,3);
+		wk=new King("WK","/White_King.png",0);
+		bk=new King("BK","/Black_King.png",1);
 		wp=new Pawn[8];
 		bp=new Pawn[8];
 		for(int i=0;i<8;i++)
@@ -161,7 +179,7 @@ public class Main extends JFrame implements MouseListener
 		content.setBackground(Color.black);
 		controlPanel=new JPanel();
 		content.setLayout(new BorderLayout());
-		controlPanel.setLayout(new GridLayout(3,3));
+		controlPanel.setLayout(new GridLayout(4,3));
 		controlPanel.setBorder(BorderFactory.createTitledBorder(null, "Statistics", TitledBorder.TOP,TitledBorder.CENTER, new Font("Lucida Calligraphy",Font.PLAIN,20), Color.ORANGE));
 		
 		//Defining the Player Box in Control Panel
@@ -193,12 +211,20 @@ public class Main extends JFrame implements MouseListener
 		BNewPlayer.setName("BNewPlayer");
 		WNewPlayer.addActionListener(new Handler(0));
 		BNewPlayer.addActionListener(new Handler(1));
+		WComputer=new JButton(COMPUTER);
+		WComputer.setName("WComputer");
+		BComputer=new JButton(COMPUTER);
+		BComputer.setName("BComputer");
+		WComputer.addActionListener(new ComputerHandler(0));
+		BComputer.addActionListener(new ComputerHandler(1));
 		wcombopanel.add(wscroll);
 		wcombopanel.add(wselect);
 		wcombopanel.add(WNewPlayer);
+		wcombopanel.add(WComputer);
 		bcombopanel.add(bscroll);
 		bcombopanel.add(bselect);
 		bcombopanel.add(BNewPlayer);
+		bcombopanel.add(BComputer);
 		WhitePlayer.add(wcombopanel,BorderLayout.NORTH);
 		BlackPlayer.add(bcombopanel,BorderLayout.NORTH);
 		whitestats.add(new JLabel("Name   :"));
@@ -277,6 +303,8 @@ public class Main extends JFrame implements MouseListener
 	      displayTime.add(start);
 	      time.add(displayTime);
 	      controlPanel.add(time);
+		analysis=new AnalysisPanel();
+		controlPanel.add(analysis);
 		board.setMinimumSize(new Dimension(800,700));
 		
 		//The Left Layout When Game is inactive
@@ -307,7 +335,9 @@ public class Main extends JFrame implements MouseListener
 	// It is made public because it is to be accessed in the Time Class
 	public void changechance()
 	{
-		if (boardState[getKing(chance).getx()][getKing(chance).gety()].ischeck())
+		stopthinking();
+		boolean hit=stoppondering();
+		if (kingcell(chance).ischeck())
 		{
 			chance^=1;
 			gameend();
@@ -329,16 +359,242 @@ public class Main extends JFrame implements MouseListener
 				Main.move="White";
 			CHNC.setText(Main.move);
 			showPlayer.add(CHNC);
+			//After the expected reply the search on the opponent's time goes on for the time of this move
+			if(hit)
+				pondering.setlimit(budget().soft());
+			else if(computer[chance])
+				think();
+			analysis.analyse(position(chance));
 		}
+		else
+		{
+			if(hit&&pondering!=null)
+			{
+				pondering.halt();
+				pondering=null;
+			}
+			analysis.analyse(null);
+		}
+	}
+	
+	//A function to retrieve the cell the Black King or White King stands on
+	private Cell kingcell(int color)
+	{
+		int sq=position(color).kingsquare(color);
+		return boardState[Bitboards.row(sq)][Bitboards.column(sq)];
+	}
+	
+	//Function to move the piece on the previous cell to the given cell, end the game if the move mates or stalemates,
+	//and hand the turn to the other player. A pawn a player moves to the last row becomes a queen, as the board
+	//offers no choice of piece; the engine plays by the same rules and may pick another piece
+	private void movepiece(Cell to)
+	{
+		movepiece(to,Position.QUEEN);
+	}
+	
+	//The same, with a pawn that reaches the last row promoted to a piece of the given type.
+	//The move is played on the position, and the two cells then draw what it holds
+	private void movepiece(Cell to,int promotion)
+	{
+		Piece moved=previous.getpiece();
+		boolean promoted=moved.gettype()==Position.PAWN&&(to.x==0||to.x==7);
+		//The board has no en passant, so a double push is played as a plain move
+		int move=Move.make(square(previous),square(to),promoted?Move.PROMOTION+promotion-Position.KNIGHT:Move.QUIET);
+		position(chance).makeMove(move);
+		draw(to,moved);
+		if (previous.ischeck())
+			previous.removecheck();
+		draw(previous,moved);
+		if(position.incheck(chance^1))
+		{
+			kingcell(chance^1).setcheck();
+			if (checkmate(chance^1))
+			{
+				previous.deselect();
+				if(previous.getpiece()!=null)
+					previous.removePiece();
+				gameend();
+			}
+		}
+		else if(stalemate(chance^1))
+		{
+			previous.deselect();
+			if(previous.getpiece()!=null)
+				previous.removePiece();
+			gameend(true);
+		}
+		if(!position.incheck(chance))
+			kingcell(chance).removecheck();
+		played=move;
+		changechance();
+		if(!end)
+		{
+			timer.reset();
+			timer.start();
+		}
+	}
+	
+	//Function to let the engine search for the move of the side to move. The search runs on a worker thread,
+	//so the board stays responsive, and its move is played back on the event dispatch thread
+	private void think()
+	{
+		final int color=chance;
+		final Position pos=new Position(position(color));
+		final TimeManager time=budget();
+		thinking=new Engine()
+		{
+			@Override
+			protected int search(ParallelSearch s)
+			{
+				return s.search(pos,time);
+			}
+			
+			@Override
+			protected void done()
+			{
+				//A search stopped because the turn moved on is thrown away
+				if(thinking!=this||end||chance!=color)
+					return;
+				thinking=null;
+				int move=result().bestmove();
+				int pv[]=result().main().pv();
+				if(move==Move.NONE)
+					return;
+				playmove(move);
+				//The opponent's turn: go on searching the position after the reply the engine expects
+				if(!end&&!computer[chance]&&pv.length>1&&pv[0]==move)
+				{
+					Position next=new Position(pos);
+					next.makeMove(move);
+					if(MoveGenerator.islegal(next,pv[1]))
+					{
+						next.makeMove(pv[1]);
+						ponder(next,pv[1]);
+					}
+				}
+			}
+		};
+		thinking.execute();
+	}
+	
+	//Function to let the engine search on the opponent's time, in the position after the reply it expects.
+	//The search goes on until the opponent moves. If the reply was the expected one the same search goes on with a time
+	//limit and the engine answers from it
+	private void ponder(final Position pos,int expected)
+	{
+		final int color=chance^1;
+		predicted=expected;
+		ponderhit=false;
+		pondering=new Engine()
+		{
+			@Override
+			protected int search(ParallelSearch s)
+			{
+				return s.search(pos,Search.MAXPLY,Search.FOREVER);
+			}
+			
+			@Override
+			protected void done()
+			{
+				//Until the expected reply is played the search is of no use, and after another one it is stopped and thrown away
+				if(pondering!=this||!ponderhit)
+					return;
+				pondering=null;
+				answer(result(),color);
+			}
+		};
+		pondering.execute();
+	}
+	
+	//Function to stop the search on the opponent's time once the opponent has moved or the game is over.
+	//Returns true if the opponent played the expected reply, in which case the search is left running to answer
+	//for the engine
+	private boolean stoppondering()
+	{
+		int move=played;
+		played=Move.NONE;
+		if(pondering==null)
+			return false;
+		if(end||move==Move.NONE||(move&0xFFF)!=(predicted&0xFFF)||Move.ispromotion(move)!=Move.ispromotion(predicted)
+				||Move.ispromotion(move)&&Move.promotion(move)!=Move.promotion(predicted))
+		{
+			pondering.halt();
+			pondering=null;
+			return false;
+		}
+		ponderhit=true;
+		//A search that had already ended on its own, at a mate or the full depth, is not done again
+		if(pondering.isDone())
+		{
+			final ParallelSearch s=pondering.result();
+			final int color=chance^1;
+			pondering=null;
+			SwingUtilities.invokeLater(()->answer(s,color));
+		}
+		return true;
 	}
 	
-	//A function to retrieve the Black King or White King
-	private King getKing(int color)
+	//Function to play the move of a search on the opponent's time after the expected reply
+	private void answer(ParallelSearch s,int color)
 	{
-		if (color==0)
-			return wk;
+		if(end||chance!=color||!computer[color])
+			return;
+		int move=s.bestmove();
+		if(move!=Move.NONE)
+			playmove(move);
 		else
-			return bk;
+			think();
+	}
+	
+	//Function to stop the search of the engine, if it is thinking
+	private void stopthinking()
+	{
+		if(thinking!=null)
+		{
+			thinking.halt();
+			thinking=null;
+		}
+	}
+	
+	//Time the engine may think for, from what is left on the clock. The clock is set again after every move,
+	//so all of it is for this move. It counts whole seconds and only runs out one tick after showing zero,
+	//so at least Timerem seconds are left. The engine never thinks longer than MAXTHINK
+	private TimeManager budget()
+	{
+		TimeManager time=new TimeManager(timer.Timerem*1000L,1);
+		time.cap(MAXTHINK);
+		return time;
+	}
+	
+	//Function to make the piece a pawn turns into on the last row
+	private static Piece promote(Piece pawn,int type)
+	{
+		String color=pawn.getcolor()==0?"White":"Black";
+		String id=pawn.getId()+"="+"NBRQ".charAt(type-Position.KNIGHT);
+		switch(type)
+		{
+		case Position.KNIGHT:
+			return new Knight(id,"/"+color+"_Knight.png",pawn.getcolor());
+		case Position.BISHOP:
+			return new Bishop(id,"/"+color+"_Bishop.png",pawn.getcolor());
+		case Position.ROOK:
+			return new Rook(id,"/"+color+"_Rook.png",pawn.getcolor());
+		default:
+			return new Queen(id,"/"+color+"_Queen.png",pawn.getcolor());
+		}
+	}
+	
+	//Function to play a move found by the engine on the board
+	private void playmove(int move)
+	{
+		int from=Move.from(move),to=Move.to(move);
+		previous=boardState[Bitboards.row(from)][Bitboards.column(from)];
+		movepiece(boardState[Bitboards.row(to)][Bitboards.column(to)],Move.ispromotion(move)?Move.promotion(move):Position.QUEEN);
+		if(previous!=null)
+		{
+			previous.deselect();
+			previous=null;
+		}
 	}
 	
 	//A function to clean the highlights of possible destination cells
@@ -359,89 +615,33 @@ public class Main extends JFrame implements MouseListener
     
     
   //Function to check if the king will be in danger if the given move is made
+    //The move is played on a headless Position and taken back, so no cell is copied
     public boolean willkingbeindanger(Cell fromcell,Cell tocell)
     {
-    	Cell newboardstate[][] = new Cell[8][8];
-    	for(int i=0;i<8;i++)
-    		for(int j=0;j<8;j++)
-    		{	try { newboardstate[i][j] = new Cell(boardState[i][j]);} catch (CloneNotSupportedException e){e.printStackTrace(); System.out.println("There is a problem with cloning !!"); }}
-    	
-    	if(newboardstate[tocell.x][tocell.y].getpiece()!=null)
-			newboardstate[tocell.x][tocell.y].removePiece();
-    	
-		newboardstate[tocell.x][tocell.y].setPiece(newboardstate[fromcell.x][fromcell.y].getpiece());
-		if(newboardstate[tocell.x][tocell.y].getpiece() instanceof King)
-		{
-			((King)(newboardstate[tocell.x][tocell.y].getpiece())).setx(tocell.x);
-			((King)(newboardstate[tocell.x][tocell.y].getpiece())).sety(tocell.y);
-		}
-		newboardstate[fromcell.x][fromcell.y].removePiece();
-		if (((King)(newboardstate[getKing(chance).getx()][getKing(chance).gety()].getpiece())).isindanger(newboardstate)==true)
-			return true;
-		else
-			return false;
+    	Position pos=position(fromcell.getpiece().getcolor());
+    	int move=Move.make(square(fromcell),square(tocell),Move.QUIET);
+    	pos.makeMove(move);
+    	boolean danger=pos.incheck(chance);
+    	pos.unmakeMove(move);
+    	return danger;
     }
     
     //A function to eliminate the possible moves that will put the King in danger
     public ArrayList<Cell> filterdestination (ArrayList<Cell> destlist, Cell fromcell)
     {
-    	ArrayList<Cell> newlist = new ArrayList<Cell>();
-    	Cell newboardstate[][] = new Cell[8][8];
-    	ListIterator<Cell> it = destlist.listIterator();
-    	int x,y;
-    	while (it.hasNext())
-    	{
-    		for(int i=0;i<8;i++)
-        		for(int j=0;j<8;j++)
-        		{	try { newboardstate[i][j] = new Cell(boardState[i][j]);} catch (CloneNotSupportedException e){e.printStackTrace();}}
-    		
-    		Cell tempc = it.next();
-    		if(newboardstate[tempc.x][tempc.y].getpiece()!=null)
-    			newboardstate[tempc.x][tempc.y].removePiece();
-    		newboardstate[tempc.x][tempc.y].setPiece(newboardstate[fromcell.x][fromcell.y].getpiece());
-    		x=getKing(chance).getx();
-    		y=getKing(chance).gety();
-    		if(newboardstate[fromcell.x][fromcell.y].getpiece() instanceof King)
-    		{
-    			((King)(newboardstate[tempc.x][tempc.y].getpiece())).setx(tempc.x);
-    			((King)(newboardstate[tempc.x][tempc.y].getpiece())).sety(tempc.y);
-    			x=tempc.x;
-    			y=tempc.y;
-    		}
-    		newboardstate[fromcell.x][fromcell.y].removePiece();
-    		if ((((King)(newboardstate[x][y].getpiece())).isindanger(newboardstate)==false))
-    			newlist.add(tempc);
-    	}
-    	return newlist;
+    	return incheckfilter(destlist,fromcell,chance);
     }
     
-    //A Function to filter the possible moves when the king of the current player is under Check 
+    //A Function to keep only the possible moves that do not leave the King of the given color under Check
     public ArrayList<Cell> incheckfilter (ArrayList<Cell> destlist, Cell fromcell, int color)
     {
     	ArrayList<Cell> newlist = new ArrayList<Cell>();
-    	Cell newboardstate[][] = new Cell[8][8];
+    	long legal=MoveGenerator.legaldestinations(position(color),square(fromcell));
     	ListIterator<Cell> it = destlist.listIterator();
-    	int x,y;
     	while (it.hasNext())
     	{
-    		for(int i=0;i<8;i++)
-        		for(int j=0;j<8;j++)
-        		{	try { newboardstate[i][j] = new Cell(boardState[i][j]);} catch (CloneNotSupportedException e){e.printStackTrace();}}
     		Cell tempc = it.next();
-    		if(newboardstate[tempc.x][tempc.y].getpiece()!=null)
-    			newboardstate[tempc.x][tempc.y].removePiece();
-    		newboardstate[tempc.x][tempc.y].setPiece(newboardstate[fromcell.x][fromcell.y].getpiece());
-    		x=getKing(color).getx();
-    		y=getKing(color).gety();
-    		if(newboardstate[tempc.x][tempc.y].getpiece() instanceof King)
-    		{
-    			((King)(newboardstate[tempc.x][tempc.y].getpiece())).setx(tempc.x);
-    			((King)(newboardstate[tempc.x][tempc.y].getpiece())).sety(tempc.y);
-    			x=tempc.x;
-    			y=tempc.y;
-    		}
-    		newboardstate[fromcell.x][fromcell.y].removePiece();
-    		if ((((King)(newboardstate[x][y].getpiece())).isindanger(newboardstate)==false))
+    		if ((legal&(1L<<square(tempc)))!=0)
     			newlist.add(tempc);
     	}
     	return newlist;
@@ -450,45 +650,93 @@ public class Main extends JFrame implements MouseListener
     //A function to check if the King is check-mate. The Game Ends if this function returns true.
     public boolean checkmate(int color)
     {
-    	ArrayList<Cell> dlist = new ArrayList<Cell>();
-    	for(int i=0;i<8;i++)
+    	return MoveGenerator.status(position(color))==MoveGenerator.CHECKMATE;
+    }
+    
+    //A function to check if the player is not in check but has no legal move. The Game is drawn if this function returns true.
+    public boolean stalemate(int color)
+    {
+    	return MoveGenerator.status(position(color))==MoveGenerator.STALEMATE;
+    }
+    
+    //Square index of a cell on the headless Position
+    private static int square(Cell cell)
+    {
+    	return Bitboards.square(cell.x,cell.y);
+    }
+    
+    //The cells the piece on a cell may move to, read off the position
+    private ArrayList<Cell> destinations(Cell from)
+    {
+    	ArrayList<Cell> list=new ArrayList<Cell>();
+    	for(long b=MoveGenerator.legaldestinations(position(chance),square(from));b!=0;b&=b-1)
     	{
-    		for(int j=0;j<8;j++)
-    		{
-    			if (boardState[i][j].getpiece()!=null && boardState[i][j].getpiece().getcolor()==color)
-    			{
-    				dlist.clear();
-    				dlist=boardState[i][j].getpiece().move(boardState, i, j);
-    				dlist=incheckfilter(dlist,boardState[i][j],color);
-    				if(dlist.size()!=0)
-    					return false;
-    			}
-    		}
+    		int sq=Long.numberOfTrailingZeros(b);
+    		list.add(boardState[Bitboards.row(sq)][Bitboards.column(sq)]);
     	}
-    	return true;
+    	return list;
+    }
+    
+    //The position on the board with the given side to move. For the side not to move it is a copy with the turn
+    //passed, so the game itself is left as it is
+    private Position position(int side)
+    {
+    	if(position==null||drawn!=boardState)
+    	{
+    		position=new Position(boardState,chance);
+    		drawn=boardState;
+    	}
+    	if(position.side()==side)
+    		return position;
+    	Position pos=new Position(position);
+    	pos.setside(side);
+    	return pos;
+    }
+    
+    //Function to make a cell draw the piece the position holds on its square: nothing, the piece that moved there,
+    //or what it was promoted to
+    private void draw(Cell cell,Piece moved)
+    {
+    	int sq=square(cell),type=position.pieceat(sq);
+    	if(cell.getpiece()!=null)
+    		cell.removePiece();
+    	if(type<0)
+    		return;
+    	cell.setPiece(type==moved.gettype()&&position.colorat(sq)==moved.getcolor()?moved:promote(moved,type));
     }
 	
     
-    @SuppressWarnings("deprecation")
 	private void gameend()
+    {
+    	gameend(false);
+    }
+    
+    //Ends the game. On a draw neither player is credited with a win
+    @SuppressWarnings("deprecation")
+	private void gameend(boolean draw)
     {
     	cleandestinations(destinationlist);
     	displayTime.disable();
     	timer.countdownTimer.stop();
     	if(previous!=null)
     		previous.removePiece();
-    	if(chance==0)
-		{	White.updateGamesWon();
-			White.Update_Player();
-			winner=White.name();
-		}
-		else
-		{
-			Black.updateGamesWon();
-			Black.Update_Player();
-			winner=Black.name();
-		}
-		JOptionPane.showMessageDialog(board,"Checkmate!!!\n"+winner+" wins");
+    	if(draw)
+    		JOptionPane.showMessageDialog(board,"Stalemate!!!\nThe game is a draw");
+    	else
+    	{
+    		if(chance==0)
+			{	White.updateGamesWon();
+				White.Update_Player();
+				winner=White.name();
+			}
+			else
+			{
+				Black.updateGamesWon();
+				Black.Update_Player();
+				winner=Black.name();
+			}
+			JOptionPane.showMessageDialog(board,"Checkmate!!!\n"+winner+" wins");
+    	}
 		WhitePlayer.remove(wdetails);
 		BlackPlayer.remove(bdetails);
 		displayTime.remove(label);
@@ -505,6 +753,8 @@ public class Main extends JFrame implements MouseListener
 		BNewPlayer.enable();
 		wselect.enable();
 		bselect.enable();
+		WComputer.enable();
+		BComputer.enable();
 		end=true;
 		Mainboard.disable();
 		Mainboard.dispose();
@@ -519,6 +769,8 @@ public class Main extends JFrame implements MouseListener
 	public void mouseClicked(MouseEvent arg0){
 		// TODO Auto-generated method stub
 		c=(Cell)arg0.getSource();
+		if(end||computer[chance])
+			return;
 		if (previous==null)
 		{
 			if(c.getpiece()!=null)
@@ -528,16 +780,7 @@ public class Main extends JFrame implements MouseListener
 				c.select();
 				previous=c;
 				destinationlist.clear();
-				destinationlist=c.getpiece().move(boardState, c.x, c.y);
-				if(c.getpiece() instanceof King)
-					destinationlist=filterdestination(destinationlist,c);
-				else
-				{
-					if(boardState[getKing(chance).getx()][getKing(chance).gety()].ischeck())
-						destinationlist = new ArrayList<Cell>(filterdestination(destinationlist,c));
-					else if(destinationlist.isEmpty()==false && willkingbeindanger(c,destinationlist.get(0)))
-						destinationlist.clear();
-				}
+				destinationlist=destinations(c);
 				highlightdestinations(destinationlist);
 			}
 		}
@@ -553,38 +796,7 @@ public class Main extends JFrame implements MouseListener
 			else if(c.getpiece()==null||previous.getpiece().getcolor()!=c.getpiece().getcolor())
 			{
 				if(c.ispossibledestination())
-				{
-					if(c.getpiece()!=null)
-						c.removePiece();
-					c.setPiece(previous.getpiece());
-					if (previous.ischeck())
-						previous.removecheck();
-					previous.removePiece();
-					if(getKing(chance^1).isindanger(boardState))
-					{
-						boardState[getKing(chance^1).getx()][getKing(chance^1).gety()].setcheck();
-						if (checkmate(getKing(chance^1).getcolor()))
-						{
-							previous.deselect();
-							if(previous.getpiece()!=null)
-								previous.removePiece();
-							gameend();
-						}
-					}
-					if(getKing(chance).isindanger(boardState)==false)
-						boardState[getKing(chance).getx()][getKing(chance).gety()].removecheck();
-					if(c.getpiece() instanceof King)
-					{
-						((King)c.getpiece()).setx(c.x);
-						((King)c.getpiece()).sety(c.y);
-					}
-					changechance();
-					if(!end)
-					{
-						timer.reset();
-						timer.start();
-					}
-				}
+					movepiece(c);
 				if(previous!=null)
 				{
 					previous.deselect();
@@ -600,24 +812,10 @@ public class Main extends JFrame implements MouseListener
 				destinationlist.clear();
 				c.select();
 				previous=c;
-				destinationlist=c.getpiece().move(boardState, c.x, c.y);
-				if(c.getpiece() instanceof King)
-					destinationlist=filterdestination(destinationlist,c);
-				else
-				{
-					if(boardState[getKing(chance).getx()][getKing(chance).gety()].ischeck())
-						destinationlist = new ArrayList<Cell>(filterdestination(destinationlist,c));
-					else if(destinationlist.isEmpty()==false && willkingbeindanger(c,destinationlist.get(0)))
-						destinationlist.clear();
-				}
+				destinationlist=destinations(c);
 				highlightdestinations(destinationlist);
 			}
 		}
-		if(c.getpiece()!=null && c.getpiece() instanceof King)
-		{
-			((King)c.getpiece()).setx(c.x);
-			((King)c.getpiece()).sety(c.y);
-		}
 	}
     
     //Other Irrelevant abstract function. Only the Click Event is captured.
@@ -658,6 +856,8 @@ public class Main extends JFrame implements MouseListener
 		BNewPlayer.disable();
 		wselect.disable();
 		bselect.disable();
+		WComputer.disable();
+		BComputer.disable();
 		split.remove(temp);
 		split.add(board);
 		showPlayer.remove(timeSlider);
@@ -674,6 +874,9 @@ public class Main extends JFrame implements MouseListener
 		displayTime.add(label);
 		timer=new Time(label);
 		timer.start();
+		if(computer[chance])
+			think();
+		analysis.analyse(position(chance));
 	}
 	}
 	
@@ -736,6 +939,7 @@ public class Main extends JFrame implements MouseListener
 					White=tempPlayer;
 				else
 					Black=tempPlayer;
+				computer[color]=false;
 				bplayer=opl;
 				ojc.removeAllItems();
 				for (Player s:opl)
@@ -787,6 +991,7 @@ public class Main extends JFrame implements MouseListener
 							White=tem;
 						else
 							Black=tem;
+						computer[color]=false;
 						}
 						else return;
 					}
@@ -802,4 +1007,96 @@ public class Main extends JFrame implements MouseListener
 				selected=true;
 			}
 			}	 
-}
\ No newline at end of file
+		
+		//Handler of the Computer buttons. The color is played by the engine, under a player named Computer
+		class ComputerHandler implements ActionListener{
+			private int color;
+			ComputerHandler(int i)
+			{
+				color=i;
+			}
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				JPanel j=(color==0)?WhitePlayer:BlackPlayer;
+				JPanel det=(color==0)?wdetails:bdetails;
+				Player p=null;
+				for(Player q:Player.fetch_players())
+					if(q.name().equals(COMPUTER))
+						p=q;
+				if(p==null)
+				{
+					p=new Player(COMPUTER);
+					p.Update_Player();
+				}
+				if(color==0)
+					White=p;
+				else
+					Black=p;
+				computer[color]=true;
+				det.removeAll();
+				det.add(new JLabel(" "+p.name()));
+				det.add(new JLabel(" "+p.gamesplayed()));
+				det.add(new JLabel(" "+p.gameswon()));
+				j.revalidate();
+				j.repaint();
+				j.add(det);
+				selected=true;
+			}
+		}
+	
+	//A search of the engine on a worker thread. Even the search is set up on the worker thread, as building its
+	//threads and tables takes longer than the event dispatch thread can spare. A halt or a time limit that comes
+	//before the search is built is handed on to it once it is
+	abstract class Engine extends SwingWorker<Integer,Void>
+	{
+		private volatile ParallelSearch search;
+		private volatile boolean halted;
+		private volatile long limit=-1;
+		
+		//The search the worker runs, once it is built
+		protected abstract int search(ParallelSearch s);
+		
+		@Override
+		protected Integer doInBackground()
+		{
+			ParallelSearch s=new ParallelSearch(THREADS,table,null);
+			search=s;
+			try
+			{
+				if(halted)
+					s.stop();
+				if(limit>=0)
+					s.setlimit(limit);
+				return search(s);
+			}
+			finally
+			{
+				s.shutdown();
+			}
+		}
+		
+		//The search, for the result once the worker is done
+		ParallelSearch result()
+		{
+			return search;
+		}
+		
+		//Function to stop the search without waiting for it
+		void halt()
+		{
+			halted=true;
+			ParallelSearch s=search;
+			if(s!=null)
+				s.stop();
+		}
+		
+		//Function to limit the search to the given time in milliseconds from its start
+		void setlimit(long millis)
+		{
+			limit=millis;
+			ParallelSearch s=search;
+			if(s!=null)
+				s.setlimit(millis);
+		}
+	}
+}
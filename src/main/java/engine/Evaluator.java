@@ -0,0 +1,102 @@
+package engine;
+
+import pieces.Position;
+
+/**
+ * This is the Evaluator Class. It scores a position in centipawns from the point of view of the side to move.
+ * The score is the material balance plus a piece-square bonus for every piece, so pieces are drawn towards
+ * the squares they work best from. The tables are laid out with White's side at the bottom, which is the
+ * same order as the square numbers, and are mirrored for Black.
+ */
+public final class Evaluator
+{
+	//Material value of every piece type, in centipawns
+	public static final int VALUES[]={100,320,330,500,900,0};
+
+	private static final int PAWN_TABLE[]={
+		  0,  0,  0,  0,  0,  0,  0,  0,
+		 50, 50, 50, 50, 50, 50, 50, 50,
+		 10, 10, 20, 30, 30, 20, 10, 10,
+		  5,  5, 10, 25, 25, 10,  5,  5,
+		  0,  0,  0, 20, 20,  0,  0,  0,
+		  5, -5,-10,  0,  0,-10, -5,  5,
+		  5, 10, 10,-20,-20, 10, 10,  5,
+		  0,  0,  0,  0,  0,  0,  0,  0};
+	private static final int KNIGHT_TABLE[]={
+		-50,-40,-30,-30,-30,-30,-40,-50,
+		-40,-20,  0,  0,  0,  0,-20,-40,
+		-30,  0, 10, 15, 15, 10,  0,-30,
+		-30,  5, 15, 20, 20, 15,  5,-30,
+		-30,  0, 15, 20, 20, 15,  0,-30,
+		-30,  5, 10, 15, 15, 10,  5,-30,
+		-40,-20,  0,  5,  5,  0,-20,-40,
+		-50,-40,-30,-30,-30,-30,-40,-50};
+	private static final int BISHOP_TABLE[]={
+		-20,-10,-10,-10,-10,-10,-10,-20,
+		-10,  0,  0,  0,  0,  0,  0,-10,
+		-10,  0,  5, 10, 10,  5,  0,-10,
+		-10,  5,  5, 10, 10,  5,  5,-10,
+		-10,  0, 10, 10, 10, 10,  0,-10,
+		-10, 10, 10, 10, 10, 10, 10,-10,
+		-10,  5,  0,  0,  0,  0,  5,-10,
+		-20,-10,-10,-10,-10,-10,-10,-20};
+	private static final int ROOK_TABLE[]={
+		  0,  0,  0,  0,  0,  0,  0,  0,
+		  5, 10, 10, 10, 10, 10, 10,  5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		 -5,  0,  0,  0,  0,  0,  0, -5,
+		  0,  0,  0,  5,  5,  0,  0,  0};
+	private static final int QUEEN_TABLE[]={
+		-20,-10,-10, -5, -5,-10,-10,-20,
+		-10,  0,  0,  0,  0,  0,  0,-10,
+		-10,  0,  5,  5,  5,  5,  0,-10,
+		 -5,  0,  5,  5,  5,  5,  0, -5,
+		  0,  0,  5,  5,  5,  5,  0, -5,
+		-10,  5,  5,  5,  5,  5,  0,-10,
+		-10,  0,  5,  0,  0,  0,  0,-10,
+		-20,-10,-10, -5, -5,-10,-10,-20};
+	private static final int KING_TABLE[]={
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-30,-40,-40,-50,-50,-40,-40,-30,
+		-20,-30,-30,-40,-40,-30,-30,-20,
+		-10,-20,-20,-20,-20,-20,-20,-10,
+		 20, 20,  0,  0,  0,  0, 20, 20,
+		 20, 30, 10,  0,  0, 10, 30, 20};
+
+	//Material and square bonus together, indexed by color, piece type and square
+	private static final int SCORES[][][]=new int[2][6][64];
+	static
+	{
+		int tables[][]={PAWN_TABLE,KNIGHT_TABLE,BISHOP_TABLE,ROOK_TABLE,QUEEN_TABLE,KING_TABLE};
+		for(int type=0;type<6;type++)
+			for(int sq=0;sq<64;sq++)
+			{
+				SCORES[Position.WHITE][type][sq]=VALUES[type]+tables[type][sq];
+				SCORES[Position.BLACK][type][sq]=VALUES[type]+tables[type][sq^56];
+			}
+	}
+
+	private Evaluator()
+	{
+	}
+
+	//Function to score a position for the side to move. Positive scores are good for the side to move
+	public static int evaluate(Position pos)
+	{
+		int score=0;
+		for(int type=0;type<6;type++)
+		{
+			int white[]=SCORES[Position.WHITE][type],black[]=SCORES[Position.BLACK][type];
+			for(long b=pos.pieces(Position.WHITE,type);b!=0;b&=b-1)
+				score+=white[Long.numberOfTrailingZeros(b)];
+			for(long b=pos.pieces(Position.BLACK,type);b!=0;b&=b-1)
+				score-=black[Long.numberOfTrailingZeros(b)];
+		}
+		return pos.side()==Position.WHITE?score:-score;
+	}
+}
@@ -0,0 +1,140 @@
+package engine;
+
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+/**
+ * This is the MovePicker Class. It hands out the moves of a position one at a time, best guesses first, so that
+ * alpha-beta finds its cut-off early. The moves come in stages and each stage is only generated when the ones
+ * before it are used up without a cut-off:
+ * the move from the transposition table, the captures that do not lose material (most valuable victim first),
+ * the two killer moves that caused a cut-off at the same ply elsewhere in the tree, the other quiet moves sorted
+ * by how often they caused cut-offs before (history), and last the captures that lose material.
+ * One picker is kept per ply and set up again for every node.
+ */
+final class MovePicker
+{
+	//Stages of the picker, in the order they are used
+	private static final int HASH=0,CAPTURES=1,GOODCAPTURES=2,KILLERS=3,QUIETS=4,GOODQUIETS=5,BADCAPTURES=6,DONE=7;
+
+	private final MoveList moves=new MoveList();
+	private final MoveList bad=new MoveList();
+	private final int scores[]=new int[MoveList.CAPACITY];
+	private final int swap[]=new int[StaticExchange.BUFFER];
+	private Position pos;
+	private int hashmove,killers[],history[];
+	private int stage,index,killer;
+
+	//Function to set the picker up for a node. Any of the moves may be Move.NONE or not legal here
+	void init(Position pos,int hashmove,int killers[],int history[])
+	{
+		this.pos=pos;
+		this.hashmove=hashmove;
+		this.killers=killers;
+		this.history=history;
+		stage=HASH;
+		killer=0;
+	}
+
+	//Returns the next move to search, or Move.NONE when all moves have been handed out.
+	//Each stage falls through to the next one once it has no more moves
+	@SuppressWarnings("fallthrough")
+	int next()
+	{
+		switch(stage)
+		{
+		case HASH:
+			stage=CAPTURES;
+			if(MoveGenerator.islegal(pos,hashmove))
+				return hashmove;
+			//fall through
+		case CAPTURES:
+			moves.clear();
+			bad.clear();
+			MoveGenerator.captures(pos,moves);
+			for(int i=0;i<moves.size();i++)
+				scores[i]=mvvlva(pos,moves.get(i));
+			index=0;
+			stage=GOODCAPTURES;
+			//fall through
+		case GOODCAPTURES:
+			while(index<moves.size())
+			{
+				int move=best(index++);
+				if(move==hashmove)
+					continue;
+				//Captures that lose material wait until the end
+				if(StaticExchange.see(pos,move,swap)<0)
+					bad.add(move);
+				else
+					return move;
+			}
+			stage=KILLERS;
+			//fall through
+		case KILLERS:
+			while(killer<killers.length)
+			{
+				int move=killers[killer++];
+				if(move!=hashmove&&!Move.iscapture(move)&&!Move.ispromotion(move)&&MoveGenerator.islegal(pos,move))
+					return move;
+			}
+			stage=QUIETS;
+			//fall through
+		case QUIETS:
+			moves.clear();
+			MoveGenerator.quiets(pos,moves);
+			int side=pos.side()<<12;
+			for(int i=0;i<moves.size();i++)
+				scores[i]=history[side|(moves.get(i)&0xFFF)];
+			index=0;
+			stage=GOODQUIETS;
+			//fall through
+		case GOODQUIETS:
+			while(index<moves.size())
+			{
+				int move=best(index++);
+				if(move!=hashmove&&move!=killers[0]&&move!=killers[1])
+					return move;
+			}
+			index=0;
+			stage=BADCAPTURES;
+			//fall through
+		case BADCAPTURES:
+			if(index<bad.size())
+				return bad.get(index++);
+			stage=DONE;
+			//fall through
+		default:
+			return Move.NONE;
+		}
+	}
+
+	//Brings the best scored move from index i on to index i and returns it (one step of a selection sort)
+	private int best(int i)
+	{
+		int top=i;
+		for(int j=i+1;j<moves.size();j++)
+			if(scores[j]>scores[top])
+				top=j;
+		int move=moves.get(top);
+		moves.set(top,moves.get(i));
+		moves.set(i,move);
+		int score=scores[top];
+		scores[top]=scores[i];
+		scores[i]=score;
+		return move;
+	}
+
+	//Most valuable victim, least valuable attacker: captures of big pieces by small ones come first.
+	//Promotions count as capturing the piece promoted to, and quiet moves come last
+	static int mvvlva(Position pos,int move)
+	{
+		int victim=Move.flags(move)==Move.EP_CAPTURE?Position.PAWN:pos.pieceat(Move.to(move));
+		int score=victim<0?0:(victim+1)*8-pos.pieceat(Move.from(move));
+		if(Move.ispromotion(move))
+			score+=Move.promotion(move)*8;
+		return score;
+	}
+}
@@ -0,0 +1,167 @@
+package engine;
+
+import perft.PerftSuite;
+import pieces.Move;
+import pieces.Position;
+
+import java.util.Arrays;
+
+/**
+ * This is the MultiPV Class. It finds the best few moves of a position, each with its score and line of play,
+ * instead of just the best one.
+ * It searches the position once per line: each pass leaves out the root moves of the lines found before it, so it
+ * finds the best of the moves that are left. All passes share one TranspositionTable, so every pass after the first
+ * finds much of the tree below the root already searched, and usually costs less than the first.
+ * Lines come best first, as found; a later line may score a little above an earlier one when the deeper search of
+ * its own pass sees more.
+ */
+public class MultiPV
+{
+	private final Search search;
+	private volatile boolean stopped;
+	private int count;
+	private int moves[]=new int[0],scores[]=new int[0],depths[]=new int[0];
+	private int lines[][]=new int[0][];
+	private long nodes[]=new long[0];
+	private long elapsed;
+
+	public MultiPV()
+	{
+		this(new TranspositionTable(Search.DEFAULT_HASH));
+	}
+
+	public MultiPV(TranspositionTable table)
+	{
+		search=new Search(table,null);
+	}
+
+	//Function to find up to the given number of best lines of a position, each searched to at most the given depth
+	//and for an equal share of the time. Returns the number of lines found, which is smaller when the position has
+	//fewer legal moves. The position is left unchanged
+	public int search(Position pos,int n,int maxdepth,long millis)
+	{
+		long start=System.nanoTime();
+		moves=new int[n];
+		scores=new int[n];
+		depths=new int[n];
+		lines=new int[n][];
+		nodes=new long[n];
+		count=0;
+		stopped=false;
+		while(count<n&&!stopped)
+		{
+			search.exclude(Arrays.copyOf(moves,count));
+			int move=search.search(pos,maxdepth,millis/n);
+			if(move==Move.NONE)
+				break;
+			moves[count]=move;
+			scores[count]=search.score();
+			depths[count]=search.depth();
+			lines[count]=search.pv();
+			nodes[count]=search.nodes();
+			count++;
+		}
+		search.exclude(null);
+		elapsed=System.nanoTime()-start;
+		return count;
+	}
+
+	//Function to stop a running search. The lines found so far are kept
+	public void stop()
+	{
+		stopped=true;
+		search.stop();
+	}
+
+	//Number of lines found by the last search
+	public int lines()
+	{
+		return count;
+	}
+
+	//First move of a line, 0 being the best
+	public int move(int line)
+	{
+		return moves[line];
+	}
+
+	//Score of a line for the side to move, in centipawns
+	public int score(int line)
+	{
+		return scores[line];
+	}
+
+	//Depth the line was searched to
+	public int depth(int line)
+	{
+		return depths[line];
+	}
+
+	//Moves of a line, starting with its first move
+	public int[] pv(int line)
+	{
+		return lines[line].clone();
+	}
+
+	//Nodes searched by the pass that found a line
+	public long nodes(int line)
+	{
+		return nodes[line];
+	}
+
+	//Nodes searched by all passes of the last search
+	public long nodes()
+	{
+		long total=0;
+		for(int i=0;i<count;i++)
+			total+=nodes[i];
+		return total;
+	}
+
+	//Time taken by the last search in nanoseconds
+	public long elapsed()
+	{
+		return elapsed;
+	}
+
+	//Command line entry point: MultiPV <lines> <depth> [fen]
+	//Searches the position to the given depth with a single line and then with the given number of lines, each with an
+	//empty table of the same size, prints the lines and reports what every further line costs over the single one
+	public static void main(String args[])
+	{
+		if(args.length<2)
+		{
+			System.out.println("usage: MultiPV <lines> <depth> [fen]");
+			return;
+		}
+		int n=Integer.parseInt(args[0]);
+		int depth=Integer.parseInt(args[1]);
+		StringBuilder fen=new StringBuilder();
+		for(int i=2;i<args.length;i++)
+			fen.append(i>2?" ":"").append(args[i]);
+		Position pos=Position.fromfen(fen.length()>0?fen.toString():Position.STARTFEN);
+
+		//One search first, so the single line is not slowed down by the compiler warming up
+		new Search().search(pos,depth,Search.FOREVER);
+		Search single=new Search();
+		single.search(pos,depth,Search.FOREVER);
+		long singlenodes=single.nodes(),singletime=single.elapsed();
+		System.out.println(String.format("single: depth %d in %d ms, %d nodes, %d nps",depth,singletime/1000000,singlenodes,PerftSuite.nps(singlenodes,singletime)));
+
+		MultiPV multi=new MultiPV();
+		int found=multi.search(pos,n,depth,Search.FOREVER);
+		long time=multi.elapsed();
+		long total=0;
+		for(int i=0;i<found;i++)
+		{
+			total+=multi.nodes(i);
+			StringBuilder line=new StringBuilder();
+			for(int move:multi.pv(i))
+				line.append(' ').append(Move.tostring(move));
+			System.out.println(String.format("%2d: score %5d, %d nodes, %d lines cost %.2fx single, pv%s",
+					i+1,multi.score(i),multi.nodes(i),i+1,(double)total/singlenodes,line));
+		}
+		System.out.println(String.format("multipv %d: %d ms, %d nodes, overhead %.2fx nodes and %.2fx time over single",
+				found,time/1000000,total,(double)total/singlenodes,(double)time/singletime));
+	}
+}
@@ -0,0 +1,203 @@
+package engine;
+
+import perft.PerftSuite;
+import pieces.Move;
+import pieces.Position;
+
+import java.io.PrintStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This is the ParallelSearch Class. It runs the same search on several threads at once (Lazy SMP).
+ * Every thread searches the whole tree from the root, but all of them share one TranspositionTable, so each thread
+ * finds much of the tree already searched by the others and they soon drift apart. Every second helper starts one
+ * ply deeper than the main search, which spreads them over more of the tree and fills the table ahead of the main thread.
+ * The search on the calling thread is the main search: its move is played and its iterations are reported.
+ * The helpers are stopped as soon as the main search is done.
+ */
+public class ParallelSearch
+{
+	private final Search main;
+	private final Search helpers[];
+	private final TranspositionTable table;
+	private final ExecutorService pool;
+	private volatile boolean stopped;                //Set by stop(), so that a stop before the search got going still ends it
+	private volatile long limit=-1;                  //Set by setlimit(), for the same reason
+
+	public ParallelSearch(int threads)
+	{
+		this(threads,new TranspositionTable(Search.DEFAULT_HASH),null);
+	}
+
+	//Constructor for a search on the given number of threads, the calling one included, sharing one table.
+	//The main search reports every finished iteration to the stream, which may be null
+	public ParallelSearch(int threads,TranspositionTable table,PrintStream out)
+	{
+		if(threads<1)
+			throw new IllegalArgumentException("Invalid thread count: "+threads);
+		this.table=table;
+		main=new Search(table,out);
+		helpers=new Search[threads-1];
+		for(int i=0;i<helpers.length;i++)
+		{
+			helpers[i]=new Search(table,null);
+			helpers[i].setoffset((i+1)&1);
+		}
+		main.sethelpers(helpers);
+		//Daemon threads, so a forgotten search never keeps the program alive
+		pool=helpers.length==0?null:Executors.newFixedThreadPool(helpers.length,r->{
+			Thread t=new Thread(r,"search helper");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	//Function to search a position for at most the given depth and time on all threads. Returns the best move of the
+	//main search, or Move.NONE if the side to move has no legal move. The position is left unchanged
+	public int search(Position position,int maxdepth,long millis)
+	{
+		return search(position,maxdepth,millis,null);
+	}
+
+	//Function to search a position for as long as the time manager allows. Only the main search asks it
+	public int search(Position position,TimeManager time)
+	{
+		return search(position,Search.MAXPLY,time.hard(),time);
+	}
+
+	private int search(Position position,int maxdepth,long millis,TimeManager time)
+	{
+		table.newsearch();
+		main.reset();
+		final Position pos=new Position(position);
+		Future<?> futures[]=new Future<?>[helpers.length];
+		for(int i=0;i<helpers.length;i++)
+		{
+			final Search helper=helpers[i];
+			helper.reset();
+			futures[i]=pool.submit(()->helper.run(pos,Search.MAXPLY,millis,null));
+		}
+		if(stopped)
+			stop();
+		if(limit>=0)
+			main.setlimit(limit);
+		int move=main.run(pos,maxdepth,millis,time);
+		for(Search helper:helpers)
+			helper.stop();
+		for(Future<?> future:futures)
+		{
+			try
+			{
+				future.get();
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			catch(ExecutionException e)
+			{
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		stopped=false;
+		limit=-1;
+		return move;
+	}
+
+	//Function to search a position for at most the given time
+	public int search(Position position,long millis)
+	{
+		return search(position,Search.MAXPLY,millis);
+	}
+
+	//Function to stop a running search. It returns the best move found so far.
+	//A search that is about to start, on another thread, is stopped as soon as it starts
+	public void stop()
+	{
+		stopped=true;
+		main.stop();
+		for(Search helper:helpers)
+			helper.stop();
+	}
+
+	//Function to limit a running search to the given time in milliseconds from its start. Only the main search is
+	//limited, as the helpers are stopped when it is done
+	public void setlimit(long millis)
+	{
+		limit=millis;
+		main.setlimit(millis);
+	}
+
+	//The search on the calling thread, which holds the result
+	public Search main()
+	{
+		return main;
+	}
+
+	public int bestmove()
+	{
+		return main.bestmove();
+	}
+
+	//Nodes searched by every thread, the main search first
+	public long[] threadnodes()
+	{
+		long result[]=new long[helpers.length+1];
+		result[0]=main.nodes();
+		for(int i=0;i<helpers.length;i++)
+			result[i+1]=helpers[i].nodes();
+		return result;
+	}
+
+	public int threads()
+	{
+		return helpers.length+1;
+	}
+
+	//Function to stop the helper threads
+	public void shutdown()
+	{
+		if(pool!=null)
+			pool.shutdown();
+	}
+
+	//Command line entry point: ParallelSearch <depth> [threads,threads,...] [fen]
+	//Searches to the given depth on one thread and then on each thread count, each with an empty table of the same size,
+	//and reports the time to depth and the speedup over the single thread
+	public static void main(String args[])
+	{
+		if(args.length==0)
+		{
+			System.out.println("usage: ParallelSearch <depth> [threads,threads,...] [fen]");
+			return;
+		}
+		int depth=Integer.parseInt(args[0]);
+		String counts[]=(args.length>1?args[1]:String.valueOf(Runtime.getRuntime().availableProcessors())).split(",");
+		StringBuilder fen=new StringBuilder();
+		for(int i=2;i<args.length;i++)
+			fen.append(i>2?" ":"").append(args[i]);
+		Position pos=Position.fromfen(fen.length()>0?fen.toString():Position.STARTFEN);
+
+		//One untimed search first, so the single threaded run is not slowed down by the compiler warming up
+		new Search(new TranspositionTable(Search.DEFAULT_HASH),null).search(pos,depth,Search.FOREVER);
+		long serialtime=0;
+		for(int n=-1;n<counts.length;n++)
+		{
+			int threads=n<0?1:Integer.parseInt(counts[n].trim());
+			ParallelSearch search=new ParallelSearch(threads,new TranspositionTable(Search.DEFAULT_HASH),null);
+			long start=System.nanoTime();
+			int move=search.search(pos,depth,Search.FOREVER);
+			long time=System.nanoTime()-start;
+			search.shutdown();
+			long nodes=search.main().totalnodes();
+			if(n<0)
+				serialtime=time;
+			double speedup=(double)serialtime/time;
+			System.out.println(String.format("%2d threads: depth %d in %d ms, %d nodes, %d nps, best %s score %d, speedup %.2fx, efficiency %.0f%%",
+					threads,depth,time/1000000,nodes,PerftSuite.nps(nodes,time),Move.tostring(move),search.main().score(),speedup,100*speedup/threads));
+		}
+	}
+}
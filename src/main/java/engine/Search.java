@@ -0,0 +1,605 @@
+package engine;
+
+import perft.PerftSuite;
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import java.io.PrintStream;
+import java.util.function.Consumer;
+
+/**
+ * This is the Search Class. It finds the best move of a position with a negamax alpha-beta search.
+ * The search deepens one ply at a time (iterative deepening) until the time budget runs out, and the move of the
+ * last finished iteration is played. Each iteration starts with the best move of the one before, and a MovePicker
+ * hands out the other moves best guesses first, so the cut-offs come early and the deeper search costs little more
+ * than its last ply. How much more is reported as the effective branching factor: the node count of an iteration
+ * divided by that of the one before.
+ * With a TranspositionTable every searched position leaves its best move and score behind; the move is tried first
+ * when the position comes up again and a deep enough score ends the search of the position at once.
+ * Where the depth runs out the search goes on with captures only (quiescence search), so that a position is never
+ * scored in the middle of an exchange. There the side to move may always stand pat on the static score instead of
+ * capturing, and captures that lose material by static exchange evaluation are not searched at all.
+ * Four techniques let the search skip most of the tree that cannot change the result, and each can be switched off
+ * on its own to measure what it brings:
+ * PVS searches every move after the first with a null window, just to prove it is no better, and only searches
+ * it again in full when the proof fails. ASPIRATION starts each iteration with a narrow window around the score of
+ * the one before. NULLMOVE lets the opponent move twice: if the position still holds above beta at a reduced depth,
+ * it is cut off without searching a move. It is not tried by a side left with only pawns, where having to move
+ * can be a disadvantage (zugzwang), and at large depths the cut-off is checked by a search without null moves.
+ * LMR searches late quiet moves, which rarely turn out best, one or two plies shallower, less for moves with a
+ * good history, and searches them again at full depth if they beat alpha after all.
+ * The search runs on its own copy of the position, so it can be stopped from another thread at any time.
+ */
+public class Search
+{
+	public static final int INFINITY=32767;
+	public static final int MATE=32000;              //Score of a mate at the root. A mate n plies away scores MATE-n
+	public static final int MAXPLY=64;
+	public static final int DEFAULT_HASH=16;         //Size of the transposition table of a new search, in megabytes
+	//A time in milliseconds to search for until stopped. It is as long as it can be while the deadline, the start
+	//in nanoseconds plus the time times 1000000, still fits into a long
+	public static final long FOREVER=Long.MAX_VALUE/2000000;
+
+	//Pruning techniques, to be combined with setoptions()
+	public static final int PVS=1,ASPIRATION=2,NULLMOVE=4,LMR=8;
+	public static final int ALL=PVS|ASPIRATION|NULLMOVE|LMR;
+
+	private static final int CHECKINTERVAL=2047;     //The clock is read once every 2048 nodes
+	private static final int WINDOW=25;              //Half width of the first aspiration window, in centipawns
+	private static final int VERIFYDEPTH=8;          //Null move cut-offs from this depth on are verified
+	private static final int LMRMOVES=3;             //Moves searched at full depth before any reduction
+
+	//One move list, one move picker and one principal variation per ply, reused for the whole search
+	private final MoveList lists[]=new MoveList[MAXPLY];
+	private final MovePicker pickers[]=new MovePicker[MAXPLY];
+	private final int pv[][]=new int[MAXPLY][MAXPLY];
+	private final int pvlength[]=new int[MAXPLY];
+	private final int scores[][]=new int[MAXPLY][MoveList.CAPACITY];   //Ordering scores of the quiescence moves
+	private final int killers[][]=new int[MAXPLY][2];  //The last two quiet moves that caused a cut-off at each ply
+	private final int history[]=new int[2<<12];        //Cut-offs of every quiet move, by side, origin and destination
+	private final int swap[]=new int[StaticExchange.BUFFER];   //Buffer of the static exchange evaluation
+	private final TranspositionTable table;
+	private final PrintStream out;
+	private Consumer<Search> listener;               //Told about every finished iteration
+
+	private volatile boolean stop;
+	private volatile long limit=Long.MAX_VALUE;      //Time limit set while the search runs, in nanoseconds from its start
+	private long deadline;
+	private long started;
+	private long nodes;
+	private long qnodes;                             //Nodes of the quiescence search, counted in nodes too
+	private double ebf;                              //Effective branching factor of the last finished iteration
+	private long elapsed;
+	private int bestmove,bestscore,completed;
+	private int rootpv[]=new int[0];
+	private int offset=0;                            //A helper of a parallel search may start one ply deeper
+	private Search helpers[]=new Search[0];          //Helpers of a parallel search, counted in the reported nodes
+	private int options=ALL;
+	private int excluded[];                          //Root moves left out by a pass of a multi-PV search, else null
+
+	public Search()
+	{
+		this(null);
+	}
+
+	//Constructor for a search that reports every finished iteration to the given stream. The stream may be null
+	public Search(PrintStream out)
+	{
+		this(new TranspositionTable(DEFAULT_HASH),out);
+	}
+
+	//Constructor for a search that keeps its results in the given table, which may be kept from move to move
+	public Search(TranspositionTable table,PrintStream out)
+	{
+		this.table=table;
+		this.out=out;
+		for(int i=0;i<MAXPLY;i++)
+		{
+			lists[i]=new MoveList();
+			pickers[i]=new MovePicker();
+		}
+	}
+
+	//Function to search a position for at most the given depth and time. Returns the best move or Move.NONE
+	//if the side to move has no legal move. The position is left unchanged
+	public int search(Position position,int maxdepth,long millis)
+	{
+		reset();
+		table.newsearch();
+		return run(position,maxdepth,millis,null);
+	}
+
+	//Function to search a position for as long as the time manager allows
+	public int search(Position position,TimeManager time)
+	{
+		reset();
+		table.newsearch();
+		return run(position,MAXPLY,time.hard(),time);
+	}
+
+	//The iterative deepening loop. A ParallelSearch starts it on every thread after clearing the stop flags itself,
+	//so that a helper stopped before it got going does not start anyway. Without a time manager every iteration
+	//that fits into the time is searched, with one it decides after every iteration whether to go on
+	int run(Position position,int maxdepth,long millis,TimeManager time)
+	{
+		long start=System.nanoTime();
+		Position pos=new Position(position);
+		started=start;
+		deadline=start+millis*1000000L;             //Cannot overflow up to FOREVER
+		nodes=0;
+		qnodes=0;
+		ebf=0;
+		long previous=0;
+		for(int i=0;i<MAXPLY;i++)
+			killers[i][0]=killers[i][1]=Move.NONE;
+		//Old history still helps, but the new search should soon outweigh it
+		for(int i=0;i<history.length;i++)
+			history[i]/=8;
+		bestmove=Move.NONE;
+		bestscore=0;
+		completed=0;
+		rootpv=new int[0];
+		MoveList root=new MoveList();
+		MoveGenerator.legal(pos,root);
+		int moves=0;
+		for(int i=0;i<root.size();i++)
+			if(!isexcluded(root.get(i)))
+				moves++;
+		//A single move is played without a search, unless its score is wanted for a line of a multi-PV search
+		int minimum=excluded==null?2:1;
+		if(root.size()==1&&minimum==2)
+			bestmove=root.get(0);
+		for(int depth=1+offset;depth<=Math.min(maxdepth,MAXPLY-1)&&moves>=minimum;depth++)
+		{
+			int score=aspiration(pos,depth);
+			if(stop)
+				break;
+			completed=depth;
+			ebf=previous==0?0:(double)nodes/previous;
+			previous=nodes;
+			bestscore=score;
+			bestmove=pv[0][0];
+			rootpv=new int[pvlength[0]];
+			System.arraycopy(pv[0],0,rootpv,0,pvlength[0]);
+			elapsed=System.nanoTime()-start;
+			if(out!=null)
+				out.println(info());
+			if(listener!=null)
+				listener.accept(this);
+			if(Math.abs(score)>=MATE-MAXPLY||time!=null&&!time.next(bestmove,score,elapsed/1000000))
+				break;
+		}
+		elapsed=System.nanoTime()-start;
+		return bestmove;
+	}
+
+	//Function to search a position for at most the given time
+	public int search(Position position,long millis)
+	{
+		return search(position,MAXPLY,millis);
+	}
+
+	//Function to stop a running search. It returns the best move found so far.
+	//Every new search starts afresh, so a stop that comes after a search has ended is of no effect
+	public void stop()
+	{
+		stop=true;
+	}
+
+	//Function to limit a running search to the given time in milliseconds from its start, as when a search on the
+	//opponent's time turns into the engine's own. A limit that has passed already ends it after its first iteration
+	public void setlimit(long millis)
+	{
+		limit=millis*1000000L;
+	}
+
+	//Whether the time of the search is up, at its deadline or at a limit set while it runs
+	private boolean timeout()
+	{
+		long now=System.nanoTime();
+		return now>deadline||now-started>limit;
+	}
+
+	//Searches the root in a window around the score of the last iteration, widening it on the side where
+	//the score fell outside until the score lands inside
+	private int aspiration(Position pos,int depth)
+	{
+		if((options&ASPIRATION)==0||depth<4||Math.abs(bestscore)>=MATE-MAXPLY)
+			return negamax(pos,depth,-INFINITY,INFINITY,0,false);
+		int delta=WINDOW;
+		int alpha=Math.max(bestscore-delta,-INFINITY),beta=Math.min(bestscore+delta,INFINITY);
+		while(true)
+		{
+			int score=negamax(pos,depth,alpha,beta,0,false);
+			if(stop||(score>alpha&&score<beta))
+				return score;
+			delta*=2;
+			if(score<=alpha)
+				alpha=delta>1000?-INFINITY:Math.max(score-delta,-INFINITY);
+			else
+				beta=delta>1000?INFINITY:Math.min(score+delta,INFINITY);
+		}
+	}
+
+	//The alpha-beta search. After a null move the next node may not play another one
+	private int negamax(Position pos,int depth,int alpha,int beta,int ply,boolean afternull)
+	{
+		pvlength[ply]=0;
+		if(ply>0&&(pos.halfmoves()>=100||pos.isrepetition()))
+			return 0;
+		if(depth<=0||ply>=MAXPLY-1)
+			return quiesce(pos,alpha,beta,ply);
+		if((++nodes&CHECKINTERVAL)==0&&completed>0&&timeout())
+			stop=true;
+		if(stop)
+			return 0;
+		long entry=table.probe(pos.key());
+		int hashmove=ply==0?bestmove:TranspositionTable.move(entry);
+		if(entry!=0&&ply>0&&TranspositionTable.depth(entry)>=depth)
+		{
+			int score=fromtable(TranspositionTable.score(entry),ply);
+			int bound=TranspositionTable.bound(entry);
+			if(bound==TranspositionTable.EXACT||(bound==TranspositionTable.LOWER&&score>=beta)||(bound==TranspositionTable.UPPER&&score<=alpha))
+				return score;
+		}
+		int us=pos.side();
+		boolean check=pos.incheck(us);
+		//Null move: a position that stays above beta even after passing the turn is cut off
+		if((options&NULLMOVE)!=0&&!afternull&&!check&&ply>0&&depth>=3&&Math.abs(beta)<MATE-MAXPLY
+				&&(pos.occupancy(us)&~pos.pieces(Position.PAWN)&~pos.pieces(Position.KING))!=0
+				&&Evaluator.evaluate(pos)>=beta)
+		{
+			int r=depth>=6?3:2;
+			pos.makenull();
+			int score=-negamax(pos,depth-1-r,-beta,-beta+1,ply+1,true);
+			pos.unmakenull();
+			if(stop)
+				return 0;
+			if(score>=beta&&(depth<VERIFYDEPTH||negamax(pos,depth-1-r,beta-1,beta,ply,true)>=beta))
+				return score>=MATE-MAXPLY?beta:score;
+		}
+		MovePicker picker=pickers[ply];
+		picker.init(pos,hashmove,killers[ply],history);
+		int best=-INFINITY,found=Move.NONE,start=alpha,searched=0;
+		for(int move=picker.next();move!=Move.NONE;move=picker.next())
+		{
+			if(ply==0&&isexcluded(move))
+				continue;
+			boolean quiet=!Move.iscapture(move)&&!Move.ispromotion(move);
+			pos.makeMove(move);
+			int score;
+			if(searched==0||(options&PVS)==0&&(options&LMR)==0)
+				score=-negamax(pos,depth-1,-beta,-alpha,ply+1,false);
+			else
+			{
+				//Late quiet moves that neither are killers nor give check are searched shallower first
+				int r=0;
+				if((options&LMR)!=0&&searched>=LMRMOVES&&depth>=3&&quiet&&!check&&move!=killers[ply][0]&&move!=killers[ply][1]
+						&&!pos.incheck(pos.side()))
+				{
+					r=searched>=6&&depth>=6?2:1;
+					if(history[(us<<12)|(move&0xFFF)]>depth*depth*4)
+						r--;
+				}
+				int window=(options&PVS)!=0?alpha+1:beta;
+				score=-negamax(pos,depth-1-r,-window,-alpha,ply+1,false);
+				if(r>0&&score>alpha&&!stop)
+					score=-negamax(pos,depth-1,-window,-alpha,ply+1,false);
+				if(window!=beta&&score>alpha&&score<beta&&!stop)
+					score=-negamax(pos,depth-1,-beta,-alpha,ply+1,false);
+			}
+			pos.unmakeMove(move);
+			searched++;
+			if(stop)
+				return 0;
+			if(score>best)
+			{
+				best=score;
+				found=move;
+				if(score>alpha)
+				{
+					alpha=score;
+					pv[ply][0]=move;
+					System.arraycopy(pv[ply+1],0,pv[ply],1,pvlength[ply+1]);
+					pvlength[ply]=pvlength[ply+1]+1;
+					if(score>=beta)
+					{
+						if(quiet)
+							cutoff(move,depth,ply,us);
+						break;
+					}
+				}
+			}
+		}
+		if(found==Move.NONE)
+			return check?-MATE+ply:0;
+		//The best of some root moves only is not the result of the position
+		if(ply>0||excluded==null)
+			table.store(pos.key(),found,totable(best,ply),depth,best>=beta?TranspositionTable.LOWER:best>start?TranspositionTable.EXACT:TranspositionTable.UPPER);
+		return best;
+	}
+
+	//Search of the captures only. A side in check has to get out of it, so then every move is searched
+	private int quiesce(Position pos,int alpha,int beta,int ply)
+	{
+		pvlength[ply]=0;
+		qnodes++;
+		if((++nodes&CHECKINTERVAL)==0&&completed>0&&timeout())
+			stop=true;
+		if(stop)
+			return 0;
+		boolean check=pos.incheck(pos.side());
+		int best=-INFINITY;
+		if(!check||ply>=MAXPLY-1)
+		{
+			//Stand pat: the side to move does not have to capture
+			best=Evaluator.evaluate(pos);
+			if(best>=beta||ply>=MAXPLY-1)
+				return best;
+			if(best>alpha)
+				alpha=best;
+		}
+		MoveList list=lists[ply];
+		list.clear();
+		if(check)
+			MoveGenerator.legal(pos,list);
+		else
+			MoveGenerator.captures(pos,list);
+		if(list.isempty())
+			return check?-MATE+ply:best;
+		int score[]=scores[ply];
+		for(int i=0;i<list.size();i++)
+			score[i]=MovePicker.mvvlva(pos,list.get(i));
+		for(int i=0;i<list.size();i++)
+		{
+			//Selection sort, one move at a time, as a cut-off usually comes before the list is through
+			int top=i;
+			for(int j=i+1;j<list.size();j++)
+				if(score[j]>score[top])
+					top=j;
+			int move=list.get(top);
+			list.set(top,list.get(i));
+			list.set(i,move);
+			int s=score[top];
+			score[top]=score[i];
+			score[i]=s;
+			if(!check&&StaticExchange.see(pos,move,swap)<0)
+				continue;
+			pos.makeMove(move);
+			int value=-quiesce(pos,-beta,-alpha,ply+1);
+			pos.unmakeMove(move);
+			if(stop)
+				return 0;
+			if(value>best)
+			{
+				best=value;
+				if(value>alpha)
+				{
+					alpha=value;
+					pv[ply][0]=move;
+					System.arraycopy(pv[ply+1],0,pv[ply],1,pvlength[ply+1]);
+					pvlength[ply]=pvlength[ply+1]+1;
+					if(value>=beta)
+						break;
+				}
+			}
+		}
+		return best;
+	}
+
+	private boolean isexcluded(int move)
+	{
+		if(excluded==null)
+			return false;
+		for(int e:excluded)
+			if(e==move)
+				return true;
+		return false;
+	}
+
+	//Remembers a quiet move that caused a cut-off, as a killer of its ply and in the history.
+	//Cut-offs deep in the tree count for more, as they save more work
+	private void cutoff(int move,int depth,int ply,int side)
+	{
+		if(killers[ply][0]!=move)
+		{
+			killers[ply][1]=killers[ply][0];
+			killers[ply][0]=move;
+		}
+		int i=(side<<12)|(move&0xFFF);
+		history[i]+=depth*depth;
+		//Halve every entry before one grows large enough to overflow the ordering
+		if(history[i]>1<<20)
+			for(int j=0;j<history.length;j++)
+				history[j]/=2;
+	}
+
+	//Mate scores are kept in the table as the distance from the stored position, not from the root
+	private static int totable(int score,int ply)
+	{
+		return score>=MATE-MAXPLY?score+ply:score<=-MATE+MAXPLY?score-ply:score;
+	}
+	private static int fromtable(int score,int ply)
+	{
+		return score>=MATE-MAXPLY?score-ply:score<=-MATE+MAXPLY?score+ply:score;
+	}
+
+	//Best move of the last finished iteration
+	public int bestmove()
+	{
+		return bestmove;
+	}
+
+	//Score of the best move for the side to move, in centipawns
+	public int score()
+	{
+		return bestscore;
+	}
+
+	//Depth of the last finished iteration
+	public int depth()
+	{
+		return completed;
+	}
+
+	//Principal variation of the last finished iteration, starting with the best move
+	public int[] pv()
+	{
+		return rootpv.clone();
+	}
+
+	public long nodes()
+	{
+		return nodes;
+	}
+
+	//Nodes searched by this search and its helpers
+	public long totalnodes()
+	{
+		long total=nodes;
+		for(Search helper:helpers)
+			total+=helper.nodes;
+		return total;
+	}
+
+	//Functions used by ParallelSearch to set up the searches of its threads
+	void setoffset(int offset)
+	{
+		this.offset=offset;
+	}
+	void sethelpers(Search helpers[])
+	{
+		this.helpers=helpers;
+	}
+	void reset()
+	{
+		stop=false;
+		limit=Long.MAX_VALUE;
+	}
+
+	//Function to leave the given root moves out of the next searches, as a multi-PV search does for the lines it
+	//already has. Such a search always scores its move, even a forced one. Null returns to a plain search
+	public void exclude(int moves[])
+	{
+		excluded=moves==null?null:moves.clone();
+	}
+
+	//Pruning techniques in use, a combination of PVS, ASPIRATION, NULLMOVE and LMR. All are on by default
+	public void setoptions(int options)
+	{
+		this.options=options;
+	}
+	public int options()
+	{
+		return options;
+	}
+
+	//Function to have the listener told about every finished iteration, on the thread that searches, while the
+	//search waits for it. It may read the results of the iteration off the search, and should return quickly
+	public void setlistener(Consumer<Search> listener)
+	{
+		this.listener=listener;
+	}
+
+	//Effective branching factor of the last finished iteration, 0 after the first one
+	public double ebf()
+	{
+		return ebf;
+	}
+
+	//Nodes of the quiescence search alone
+	public long qnodes()
+	{
+		return qnodes;
+	}
+
+	public TranspositionTable table()
+	{
+		return table;
+	}
+
+	//Time taken by the last search in nanoseconds
+	public long elapsed()
+	{
+		return elapsed;
+	}
+
+	//A line describing the last finished iteration: depth, score, nodes, speed and principal variation
+	public String info()
+	{
+		StringBuilder sb=new StringBuilder();
+		sb.append("depth ").append(completed);
+		if(Math.abs(bestscore)>=MATE-MAXPLY)
+			sb.append(" mate ").append(bestscore>0?(MATE-bestscore+1)/2:-(MATE+bestscore)/2);
+		else
+			sb.append(" score ").append(bestscore);
+		long total=totalnodes();
+		sb.append(" nodes ").append(total).append(" time ").append(elapsed/1000000).append(" nps ").append(PerftSuite.nps(total,elapsed))
+				.append(String.format(" ebf %.2f",ebf)).append(String.format(" hashhits %.1f%% hashfull %.1f%%",100*table.hitrate(),100*table.fill())).append(" pv");
+		for(int move:rootpv)
+			sb.append(' ').append(Move.tostring(move));
+		return sb.toString();
+	}
+
+	//Command line entry point.
+	//  search <millis> [fen]              search a position (the start position by default) and print every iteration
+	//  search hash <mb> <millis> [fen]    the same with a transposition table of the given size
+	//  search clock <millis> [fen]        search as if the given time was left on the clock for this move
+	//  search compare <depth> [fen]       search to the given depth with every pruning technique, then with each one
+	//                                     switched off in turn and with none, and compare time to depth and nodes
+	public static void main(String args[])
+	{
+		if(args.length==0)
+		{
+			System.out.println("usage: search <millis> [fen] | hash <mb> <millis> [fen] | clock <millis> [fen] | compare <depth> [fen]");
+			return;
+		}
+		boolean hash=args[0].equals("hash"),clock=args[0].equals("clock"),compare=args[0].equals("compare");
+		int first=hash?2:clock||compare?1:0;
+		StringBuilder fen=new StringBuilder();
+		for(int i=first+1;i<args.length;i++)
+			fen.append(i>first+1?" ":"").append(args[i]);
+		Position pos=Position.fromfen(args.length>first+1?fen.toString():Position.STARTFEN);
+		if(compare)
+		{
+			compare(pos,Integer.parseInt(args[1]));
+			return;
+		}
+		TranspositionTable table=new TranspositionTable(hash?Integer.parseInt(args[1]):DEFAULT_HASH);
+		Search search=new Search(table,System.out);
+		int move;
+		if(clock)
+		{
+			TimeManager time=new TimeManager(Long.parseLong(args[first]),1);
+			move=search.search(pos,time);
+			System.out.println(String.format("Time: %d ms of soft %d ms, hard %d ms",search.elapsed()/1000000,time.soft(),time.hard()));
+		}
+		else
+			move=search.search(pos,Long.parseLong(args[first]));
+		System.out.println("bestmove "+(move==Move.NONE?"(none)":Move.tostring(move)));
+		System.out.println(String.format("Quiescence: %d of %d nodes",search.qnodes(),search.nodes()));
+		System.out.println(String.format("Hash: %d entries, %d probes, %.1f%% hits, %.1f%% full",table.size(),table.probes(),100*table.hitrate(),100*table.fill()));
+	}
+
+	//Searches a position to a fixed depth once per set of pruning techniques, each time with an empty table
+	private static void compare(Position pos,int depth)
+	{
+		String names[]={"all","no pvs","no aspiration","no null move","no lmr","none"};
+		int sets[]={ALL,ALL&~PVS,ALL&~ASPIRATION,ALL&~NULLMOVE,ALL&~LMR,0};
+		//One search first, so the first row is not slowed down by the compiler warming up
+		new Search().search(pos,depth,FOREVER);
+		long base=0;
+		for(int i=0;i<sets.length;i++)
+		{
+			Search search=new Search();
+			search.setoptions(sets[i]);
+			int move=search.search(pos,depth,FOREVER);
+			if(i==0)
+				base=search.nodes();
+			System.out.println(String.format("%-14s depth %d in %d ms, %d nodes (%.2fx), ebf %.2f, best %s score %d",
+					names[i],depth,search.elapsed()/1000000,search.nodes(),(double)search.nodes()/base,search.ebf(),Move.tostring(move),search.score()));
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package engine;
+
+import pieces.Move;
+import pieces.Position;
+
+/**
+ * This is the StaticExchange Class. It works out what a capture wins or loses once every piece that can join in
+ * has captured back on the same square, without playing a single move (static exchange evaluation).
+ * Both sides always recapture with their least valuable piece and may stop whenever going on would lose more.
+ * Sliders standing behind a capturing piece join in as soon as it has left the line (x-rays).
+ */
+public final class StaticExchange
+{
+	//Size of the buffer see() works in. No square is attacked by more than 32 pieces
+	public static final int BUFFER=32;
+
+	//Piece values of the exchange. The king is worth more than everything else put together
+	private static final int VALUES[]={100,320,330,500,900,20000};
+
+	private StaticExchange()
+	{
+	}
+
+	//Function to get the material the side to move wins by a move, in centipawns, if both sides then recapture
+	//on the destination square for as long as it pays. A negative result means the move loses material.
+	//The gains of the captures are kept in the given buffer of BUFFER ints, which the caller keeps from call to call
+	//so the search allocates nothing
+	public static int see(Position pos,int move,int gain[])
+	{
+		int from=Move.from(move),to=Move.to(move);
+		long occupied=pos.occupied()^(1L<<from);
+		if(Move.flags(move)==Move.EP_CAPTURE)
+		{
+			gain[0]=VALUES[Position.PAWN];
+			occupied^=1L<<(to+(pos.side()==Position.WHITE?8:-8));
+		}
+		else
+			gain[0]=pos.pieceat(to)<0?0:VALUES[pos.pieceat(to)];
+		int onsquare=VALUES[pos.pieceat(from)];
+		if(Move.ispromotion(move))
+		{
+			gain[0]+=VALUES[Move.promotion(move)]-VALUES[Position.PAWN];
+			onsquare=VALUES[Move.promotion(move)];
+		}
+		int side=pos.side()^1;
+		int d=0;
+		while(d<BUFFER-1)
+		{
+			long attackers=pos.attackers(to,side,occupied)&occupied;
+			if(attackers==0)
+				break;
+			int type=Position.PAWN;
+			while((attackers&pos.pieces(type))==0)
+				type++;
+			long attacker=attackers&pos.pieces(type);
+			attacker&=-attacker;
+			//The king may only take last, on a square the other side no longer defends
+			if(type==Position.KING&&(pos.attackers(to,side^1,occupied^attacker)&occupied)!=0)
+				break;
+			d++;
+			gain[d]=onsquare-gain[d-1];
+			occupied^=attacker;
+			onsquare=VALUES[type];
+			side^=1;
+		}
+		//Going back from the last capture, each side takes the better of stopping and capturing
+		while(d>0)
+		{
+			gain[d-1]=-Math.max(-gain[d-1],gain[d]);
+			d--;
+		}
+		return gain[0];
+	}
+}
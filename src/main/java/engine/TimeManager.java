@@ -0,0 +1,73 @@
+package engine;
+
+import pieces.Move;
+
+/**
+ * This is the TimeManager Class. It decides how long the engine thinks about one move from what is left on its clock.
+ * The time is split into two budgets: the soft budget is what a move normally takes, and the hard budget is the
+ * point where the search is stopped in the middle of an iteration, whatever it is doing.
+ * A fixed overhead and a share of the clock are always kept back, so the move reaches the board before the clock
+ * runs out even when the machine is slow to schedule the search or the move.
+ * After every iteration the soft budget is scaled: a best move that keeps changing or a score that drops gets more
+ * time, a best move that stays the same iteration after iteration gets less. No new iteration is started when it
+ * would most likely not finish before the hard budget.
+ * A TimeManager serves one search and is made anew for every move.
+ */
+public final class TimeManager
+{
+	private static final long OVERHEAD=200;          //Kept back for the move to reach the board, in milliseconds
+	private static final long MINIMUM=10;            //Smallest budget, so a move is always found
+	private static final int SCOREDROP=30;           //A score falling by more than this counts as trouble
+
+	private long soft,hard;
+	private int lastmove=Move.NONE,lastscore;
+	private long lastelapsed;
+	private double instability;
+
+	//Constructor for a move with the given time left on the clock in milliseconds, which has to last for the given
+	//number of moves. A clock that is set again after every move lasts for one
+	public TimeManager(long remaining,int movestogo)
+	{
+		movestogo=Math.max(1,movestogo);
+		long usable=Math.max(MINIMUM,remaining-OVERHEAD-remaining/20);
+		hard=Math.min(usable,3*usable/movestogo);
+		soft=Math.max(MINIMUM,usable/movestogo/2);
+	}
+
+	//Function to keep both budgets within the given number of milliseconds
+	public void cap(long millis)
+	{
+		hard=Math.max(MINIMUM,Math.min(hard,millis));
+		soft=Math.min(soft,hard);
+	}
+
+	//Function to be called after every finished iteration with its best move and score and the time since the
+	//search started in milliseconds. Returns true if the next iteration should be searched
+	public boolean next(int move,int score,long elapsed)
+	{
+		//Recent changes of the best move weigh most, older ones fade away
+		instability=instability/2+(lastmove!=Move.NONE&&move!=lastmove?1:0);
+		double factor=0.6+0.7*instability;
+		if(lastmove!=Move.NONE&&score<lastscore-SCOREDROP)
+			factor*=1.25;
+		long target=Math.min(hard,(long)(soft*factor));
+		long iteration=elapsed-lastelapsed;
+		lastmove=move;
+		lastscore=score;
+		lastelapsed=elapsed;
+		//The next iteration takes at least about twice as long as this one
+		return elapsed<target&&elapsed+2*iteration<hard;
+	}
+
+	//Time a move normally takes, in milliseconds
+	public long soft()
+	{
+		return soft;
+	}
+
+	//Time after which the search is stopped, in milliseconds
+	public long hard()
+	{
+		return hard;
+	}
+}
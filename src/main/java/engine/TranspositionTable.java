@@ -0,0 +1,146 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the TranspositionTable Class. It remembers what the search learned about a position (best move, score,
+ * depth and whether the score is exact or only a bound) under its Zobrist key, so a position reached again through
+ * another move order, or again in the next iteration, is not searched twice.
+ * The table is one long array, so however large it is the garbage collector sees a single object. It is split into
+ * buckets of two entries: the first keeps the deepest result (depth-preferred) and the second takes whatever does
+ * not fit there (always-replace). As in the PerftCache, each entry is the packed data plus the key XORed with the data,
+ * so threads can read and write without locks and a torn entry reads as a miss.
+ */
+public class TranspositionTable
+{
+	//Score bounds
+	public static final int EXACT=1,LOWER=2,UPPER=3;
+
+	private static final int BUCKET=4;               //Longs per bucket: two entries of key and data
+	private static final int SAMPLE=1000;            //Buckets looked at to estimate the fill
+
+	private final long table[];
+	private final int mask;
+	private int age=0;                                //Search generation. Entries of older searches are replaced first
+	private final LongAdder probes=new LongAdder();
+	private final LongAdder hits=new LongAdder();
+
+	//Creates a table of at most the given size in megabytes. The bucket count is rounded down to a power of two
+	public TranspositionTable(int megabytes)
+	{
+		if(megabytes<1)
+			throw new IllegalArgumentException("Invalid table size: "+megabytes);
+		long buckets=Long.highestOneBit(megabytes*(1L<<20)/(BUCKET*8));
+		buckets=Math.min(buckets,1L<<28);
+		table=new long[(int)buckets*BUCKET];
+		mask=(int)buckets-1;
+	}
+
+	//Returns the packed entry stored for a position key, or 0 if there is none. Use the static getters to unpack it
+	public long probe(long key)
+	{
+		probes.increment();
+		int i=index(key);
+		for(int j=i;j<i+BUCKET;j+=2)
+		{
+			long data=table[j+1];
+			if(data!=0&&(table[j]^data)==key)
+			{
+				hits.increment();
+				return data;
+			}
+		}
+		return 0;
+	}
+
+	//Stores the result of searching a position. The first entry of the bucket is replaced when it holds the same
+	//position, a result of an older search or a shallower one; otherwise the second entry is overwritten
+	public void store(long key,int move,int score,int depth,int bound)
+	{
+		int i=index(key);
+		long first=table[i+1];
+		boolean same=first!=0&&(table[i]^first)==key;
+		int j=same||first==0||age(first)!=age||depth>=depth(first)?i:i+2;
+		long old=table[j+1];
+		//A result without a move keeps the move already stored for the position
+		if(move==0&&old!=0&&(table[j]^old)==key)
+			move=move(old);
+		long data=(move&0xFFFFL)|((score&0xFFFFL)<<16)|((long)(depth&0xFF)<<32)|((long)bound<<40)|((long)age<<42);
+		table[j]=key^data;
+		table[j+1]=data;
+	}
+
+	private int index(long key)
+	{
+		return (int)(key&mask)*BUCKET;
+	}
+
+	//Unpacking of an entry
+	public static int move(long data)
+	{
+		return (int)(data&0xFFFF);
+	}
+	public static int score(long data)
+	{
+		return (short)(data>>>16);
+	}
+	public static int depth(long data)
+	{
+		return (int)((data>>>32)&0xFF);
+	}
+	public static int bound(long data)
+	{
+		return (int)((data>>>40)&3);
+	}
+	private static int age(long data)
+	{
+		return (int)((data>>>42)&0xFF);
+	}
+
+	//Function to start a new search. The entries of earlier searches stay usable but give way to new ones
+	public void newsearch()
+	{
+		age=(age+1)&0xFF;
+	}
+
+	//Function to empty the table and reset the statistics
+	public void clear()
+	{
+		Arrays.fill(table,0);
+		probes.reset();
+		hits.reset();
+	}
+
+	//Number of entries the table holds
+	public int size()
+	{
+		return (mask+1)*2;
+	}
+
+	public long probes()
+	{
+		return probes.sum();
+	}
+	public long hits()
+	{
+		return hits.sum();
+	}
+
+	//Fraction of probes that found their position, between 0 and 1
+	public double hitrate()
+	{
+		long p=probes.sum();
+		return p==0?0:(double)hits.sum()/p;
+	}
+
+	//Fraction of the entries in use, between 0 and 1, estimated from the first buckets of the table
+	public double fill()
+	{
+		int buckets=Math.min(SAMPLE,mask+1),used=0;
+		for(int i=0;i<buckets*BUCKET;i+=2)
+			if(table[i+1]!=0)
+				used++;
+		return (double)used/(buckets*2);
+	}
+}
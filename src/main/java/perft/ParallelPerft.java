@@ -0,0 +1,172 @@
+package perft;
+
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This is the ParallelPerft Class. It counts the same leaf nodes as Perft, but splits the tree near the root
+ * into fork-join tasks so that all cores take part. Every task below the split depth works on its own copy of the position,
+ * and idle workers steal the remaining subtrees from busy ones.
+ * The number of leaf nodes counted by each worker is kept so that the balance of the work can be reported.
+ * Given a PerftCache, all workers share it, so a subtree counted by one worker is reused by the others.
+ */
+public class ParallelPerft
+{
+	//Subtrees of at most this depth are counted by a single worker without further splitting
+	public static final int DEFAULT_SERIALDEPTH=3;
+
+	private final ForkJoinPool pool;
+	private final int threads;
+	private final int serialdepth;
+	private final PerftCache cache;
+	private final ThreadLocal<Perft> perfts;
+	private AtomicLongArray counts;
+
+	public ParallelPerft(int threads)
+	{
+		this(threads,DEFAULT_SERIALDEPTH);
+	}
+
+	public ParallelPerft(int threads,int serialdepth)
+	{
+		this(threads,serialdepth,null);
+	}
+
+	//Constructor for workers sharing a subtree cache. The cache may be null
+	public ParallelPerft(int threads,int serialdepth,PerftCache cache)
+	{
+		if(threads<1||serialdepth<1)
+			throw new IllegalArgumentException("Invalid thread count or serial depth");
+		this.threads=threads;
+		this.serialdepth=serialdepth;
+		this.cache=cache;
+		this.perfts=ThreadLocal.withInitial(()->new Perft(cache));
+		this.pool=new ForkJoinPool(threads);
+	}
+
+	//Function to count the leaf nodes at the given depth below a position. The position is not changed
+	public long perft(Position pos,int depth)
+	{
+		if(depth<0)
+			throw new IllegalArgumentException("Invalid depth: "+depth);
+		counts=new AtomicLongArray(threads);
+		return pool.invoke(new Task(new Position(pos),depth));
+	}
+
+	//Leaf nodes accounted for by each worker during the last call, counts taken from the cache included
+	public long[] threadcounts()
+	{
+		long result[]=new long[threads];
+		for(int i=0;i<threads;i++)
+			result[i]=counts.get(i);
+		return result;
+	}
+
+	public int threads()
+	{
+		return threads;
+	}
+
+	//Function to stop the worker threads
+	public void shutdown()
+	{
+		pool.shutdown();
+	}
+
+	//A subtree of the walk. Near the root it forks one task per move, lower down it counts on its own
+	private class Task extends RecursiveTask<Long>
+	{
+		private static final long serialVersionUID=1L;
+		private final Position pos;
+		private final int depth;
+
+		Task(Position pos,int depth)
+		{
+			this.pos=pos;
+			this.depth=depth;
+		}
+
+		@Override
+		protected Long compute()
+		{
+			if(depth<=serialdepth)
+				return credit(perfts.get().perft(pos,depth));
+			if(cache!=null)
+			{
+				long cached=cache.get(pos.key(),depth);
+				if(cached>=0)
+					return credit(cached);
+			}
+			MoveList list=new MoveList();
+			MoveGenerator.legal(pos,list);
+			Task tasks[]=new Task[list.size()];
+			for(int i=0;i<list.size();i++)
+			{
+				Position child=new Position(pos);
+				child.makeMove(list.get(i));
+				tasks[i]=new Task(child,depth-1);
+				tasks[i].fork();
+			}
+			long total=0;
+			for(int i=tasks.length-1;i>=0;i--)
+				total+=tasks[i].join();
+			if(cache!=null)
+				cache.put(pos.key(),depth,total);
+			return total;
+		}
+	}
+
+	//Adds a subtree count to the tally of the worker running the current task
+	private long credit(long count)
+	{
+		Thread t=Thread.currentThread();
+		int worker=t instanceof ForkJoinWorkerThread?((ForkJoinWorkerThread)t).getPoolIndex()%threads:0;
+		counts.addAndGet(worker,count);
+		return count;
+	}
+
+	//Command line entry point: ParallelPerft <depth> [threads] [fen]
+	//Runs the single threaded counter first and then the parallel one, and reports the speedup and scaling efficiency
+	public static void main(String args[])
+	{
+		if(args.length==0)
+		{
+			System.out.println("usage: ParallelPerft <depth> [threads] [fen]");
+			return;
+		}
+		int depth=Integer.parseInt(args[0]);
+		int threads=args.length>1?Integer.parseInt(args[1]):Runtime.getRuntime().availableProcessors();
+		StringBuilder fen=new StringBuilder();
+		for(int i=2;i<args.length;i++)
+			fen.append(i>2?" ":"").append(args[i]);
+		Position pos=Position.fromfen(fen.length()>0?fen.toString():Position.STARTFEN);
+
+		long start=System.nanoTime();
+		long serial=new Perft().perft(pos,depth);
+		long serialtime=System.nanoTime()-start;
+		System.out.println("1 thread:  "+serial+" nodes in "+serialtime/1000000+" ms, "+PerftSuite.nps(serial,serialtime)+" nps");
+
+		ParallelPerft perft=new ParallelPerft(threads);
+		start=System.nanoTime();
+		long parallel=perft.perft(pos,depth);
+		long paralleltime=System.nanoTime()-start;
+		perft.shutdown();
+		System.out.println(threads+" threads: "+parallel+" nodes in "+paralleltime/1000000+" ms, "+PerftSuite.nps(parallel,paralleltime)+" nps");
+		long counts[]=perft.threadcounts();
+		for(int i=0;i<counts.length;i++)
+			System.out.println(String.format("  worker %2d: %12d nodes (%.1f%%)",i,counts[i],100.0*counts[i]/Math.max(1,parallel)));
+		double speedup=(double)serialtime/paralleltime;
+		System.out.println(String.format("Speedup %.2fx, efficiency %.0f%%",speedup,100*speedup/threads));
+		if(serial!=parallel)
+		{
+			System.out.println("MISMATCH between single threaded and parallel counts");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package perft;
+
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the Perft Class. It counts the leaf nodes of the legal move tree of a position down to a fixed depth.
+ * The counts of well known positions are published, so comparing against them proves the move generator exact,
+ * and timing the walk measures how fast it is. At the last ply the legal moves are only counted, never played (bulk counting).
+ * With a PerftCache the count of every subtree is stored under its position key and looked up before it is walked again.
+ */
+public class Perft
+{
+	private static final int MAXDEPTH=64;
+
+	//One move list per ply, reused for the whole walk
+	private final MoveList lists[]=new MoveList[MAXDEPTH];
+	private final PerftCache cache;
+
+	public Perft()
+	{
+		this(null);
+	}
+
+	//Constructor for a counter that shares the given cache. The cache may be null
+	public Perft(PerftCache cache)
+	{
+		this.cache=cache;
+		for(int i=0;i<MAXDEPTH;i++)
+			lists[i]=new MoveList();
+	}
+
+	//Function to count the leaf nodes at the given depth below a position
+	public long perft(Position pos,int depth)
+	{
+		if(depth<0||depth>=MAXDEPTH)
+			throw new IllegalArgumentException("Invalid depth: "+depth);
+		return depth==0?1:count(pos,depth);
+	}
+
+	//Function to split the count of a position by its root moves, in the order they are generated
+	public Map<String,Long> divide(Position pos,int depth)
+	{
+		if(depth<1||depth>=MAXDEPTH)
+			throw new IllegalArgumentException("Invalid depth: "+depth);
+		Map<String,Long> counts=new LinkedHashMap<String,Long>();
+		MoveList list=new MoveList();
+		MoveGenerator.legal(pos,list);
+		for(int i=0;i<list.size();i++)
+		{
+			int move=list.get(i);
+			pos.makeMove(move);
+			counts.put(Move.tostring(move),depth==1?1:count(pos,depth-1));
+			pos.unmakeMove(move);
+		}
+		return counts;
+	}
+
+	private long count(Position pos,int depth)
+	{
+		//A count of depth 1 is not cached, as the table probe, mostly a cache miss, costs more than generating the moves
+		if(cache!=null&&depth>1)
+		{
+			long cached=cache.get(pos.key(),depth);
+			if(cached>=0)
+				return cached;
+		}
+		MoveList list=lists[depth];
+		list.clear();
+		MoveGenerator.legal(pos,list);
+		if(depth==1)
+			return list.size();
+		long total=0;
+		for(int i=0;i<list.size();i++)
+		{
+			pos.makeMove(list.get(i));
+			total+=count(pos,depth-1);
+			pos.unmakeMove(list.get(i));
+		}
+		if(cache!=null)
+			cache.put(pos.key(),depth,total);
+		return total;
+	}
+
+	//Command line entry point.
+	//  perft <depth> [fen]          count the leaf nodes of a position (the start position by default)
+	//  perft divide <depth> [fen]   the same, split by root move
+	//  perft suite [maxnodes]       run the standard positions and compare against the published counts
+	//  perft hash <mb> <depth> [fen]   count with a subtree cache of the given size and report its hit rate
+	public static void main(String args[])
+	{
+		if(args.length==0)
+		{
+			System.out.println("usage: perft <depth> [fen] | divide <depth> [fen] | suite [maxnodes] | hash <mb> <depth> [fen]");
+			return;
+		}
+		if(args[0].equals("suite"))
+		{
+			long limit=args.length>1?Long.parseLong(args[1]):PerftSuite.DEFAULT_LIMIT;
+			System.exit(new PerftSuite(System.out).run(limit)?0:1);
+		}
+		boolean divide=args[0].equals("divide");
+		PerftCache cache=args[0].equals("hash")?new PerftCache(Integer.parseInt(args[1])):null;
+		int first=divide?1:cache!=null?2:0;
+		int depth=Integer.parseInt(args[first]);
+		Position pos=Position.fromfen(args.length>first+1?join(args,first+1):Position.STARTFEN);
+		Perft perft=new Perft(cache);
+		long start=System.nanoTime();
+		long total=0;
+		if(divide)
+		{
+			for(Map.Entry<String,Long> e:perft.divide(pos,depth).entrySet())
+			{
+				System.out.println(e.getKey()+": "+e.getValue());
+				total+=e.getValue();
+			}
+			System.out.println();
+		}
+		else
+			total=perft.perft(pos,depth);
+		long elapsed=System.nanoTime()-start;
+		System.out.println("Nodes: "+total);
+		System.out.println("Time: "+elapsed/1000000+" ms");
+		System.out.println("NPS: "+PerftSuite.nps(total,elapsed));
+		if(cache!=null)
+			System.out.println(String.format("Hash: %d entries, %d probes, %.1f%% hits",cache.size(),cache.probes(),100*cache.hitrate()));
+	}
+
+	//The FEN may come split over several arguments
+	private static String join(String args[],int from)
+	{
+		StringBuilder sb=new StringBuilder();
+		for(int i=from;i<args.length;i++)
+			sb.append(i>from?" ":"").append(args[i]);
+		return sb.toString();
+	}
+}
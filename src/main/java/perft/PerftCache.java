@@ -0,0 +1,90 @@
+package perft;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This is the PerftCache Class. It remembers the leaf count of (position key, depth) pairs so that a perft walk
+ * can skip subtrees it reaches again through a different move order.
+ * The table is a plain long array that any number of threads read and write without locks. Each entry is two longs:
+ * the packed data (count and depth) and the position key XORed with that data. A reader only accepts an entry whose
+ * two halves agree, so an entry torn by two threads writing at once reads as a miss rather than a wrong count.
+ * New entries always replace old ones.
+ */
+public class PerftCache
+{
+	private static final int DEPTHBITS=8;
+
+	private final long table[];
+	private final int mask;
+	private final LongAdder probes=new LongAdder();
+	private final LongAdder hits=new LongAdder();
+
+	//Creates a table of at most the given size in megabytes. The entry count is rounded down to a power of two
+	public PerftCache(int megabytes)
+	{
+		if(megabytes<1)
+			throw new IllegalArgumentException("Invalid cache size: "+megabytes);
+		long entries=Long.highestOneBit(megabytes*(1L<<20)/16);
+		entries=Math.min(entries,1L<<29);
+		table=new long[(int)entries*2];
+		mask=(int)entries-1;
+	}
+
+	//Returns the stored count for a position key and depth, or -1 if there is none
+	public long get(long key,int depth)
+	{
+		probes.increment();
+		int i=index(key,depth);
+		long data=table[i+1];
+		if((table[i]^data)!=key||(data&((1<<DEPTHBITS)-1))!=depth)
+			return -1;
+		hits.increment();
+		return data>>>DEPTHBITS;
+	}
+
+	//Stores the count of a position key at a depth
+	public void put(long key,int depth,long count)
+	{
+		int i=index(key,depth);
+		long data=(count<<DEPTHBITS)|depth;
+		table[i]=key^data;
+		table[i+1]=data;
+	}
+
+	//The same position at different depths goes to different slots
+	private int index(long key,int depth)
+	{
+		return (int)((key^(depth*0x9E3779B97F4A7C15L))&mask)<<1;
+	}
+
+	//Function to empty the table and reset the statistics
+	public void clear()
+	{
+		Arrays.fill(table,0);
+		probes.reset();
+		hits.reset();
+	}
+
+	//Number of entries the table holds
+	public int size()
+	{
+		return mask+1;
+	}
+
+	public long probes()
+	{
+		return probes.sum();
+	}
+	public long hits()
+	{
+		return hits.sum();
+	}
+
+	//Fraction of probes that found their count, between 0 and 1
+	public double hitrate()
+	{
+		long p=probes.sum();
+		return p==0?0:(double)hits.sum()/p;
+	}
+}
@@ -0,0 +1,391 @@
+package perft;
+
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the PerftCoordinator Class. It spreads a perft count over worker processes.
+ * The tree is expanded a few plies below the root, and every position found there becomes a work unit
+ * that is sent to the next free PerftWorker over a socket. The counts that come back are added up.
+ * If a worker goes away in the middle of a unit, the unit is put back in the queue for another worker,
+ * and worker processes that were started by the coordinator are started again. A worker that sends nothing for
+ * a while, not even the ALIVE lines it sends while counting, is taken to be gone too, as a hung worker or a link
+ * that dropped without closing the connection would otherwise hold its unit forever.
+ * If the worker processes it started all fail at start and no other worker is connected, nothing is left to count
+ * the units, so the jobs waiting for them fail instead of waiting forever.
+ */
+public class PerftCoordinator
+{
+	//Plies below the root at which the tree is cut into work units by default
+	public static final int DEFAULT_SPLITDEPTH=2;
+
+	//A worker process that exits sooner than this after being started is not started again, as it would only fail again
+	private static final long MINUPTIME=1000;
+
+	//A worker that sends nothing for this long, in milliseconds, is given up on
+	private static final int TIMEOUT=6*PerftWorker.HEARTBEAT;
+
+	//A position to count and the job it belongs to. A unit with no job tells a connection to close
+	private static class Unit
+	{
+		final long id;
+		final String fen;
+		final int depth;
+		final Job job;
+
+		Unit(long id,String fen,int depth,Job job)
+		{
+			this.id=id;
+			this.fen=fen;
+			this.depth=depth;
+			this.job=job;
+		}
+	}
+
+	//The state of one perft call
+	private static class Job
+	{
+		final AtomicLong total=new AtomicLong();
+		final CountDownLatch remaining;
+		volatile String failure;                 //Why the job cannot finish, or null
+
+		Job(int units)
+		{
+			remaining=new CountDownLatch(units);
+		}
+
+		//Wakes up the caller waiting for the job, which then throws
+		void fail(String reason)
+		{
+			failure=reason;
+			while(remaining.getCount()>0)
+				remaining.countDown();
+		}
+	}
+
+	private final ServerSocket server;
+	private final BlockingQueue<Unit> queue=new LinkedBlockingQueue<Unit>();
+	private final List<Socket> connections=new ArrayList<Socket>();
+	private final List<Process> processes=new ArrayList<Process>();
+	private final List<Job> jobs=new ArrayList<Job>();   //Jobs still waiting for units
+	private final AtomicLong ids=new AtomicLong();
+	private final AtomicLong failures=new AtomicLong();
+	private volatile boolean closed=false;
+	private volatile boolean spawned=false;          //Set once a worker process was started
+	private long minuptime=MINUPTIME;
+	private int timeout=TIMEOUT;
+	private String classpath=System.getProperty("java.class.path");
+
+	//Creates a coordinator listening on the given port. Port 0 picks any free port
+	public PerftCoordinator(int port) throws IOException
+	{
+		server=new ServerSocket(port);
+		Thread acceptor=new Thread(this::accept,"perft-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	//Port that workers connect to
+	public int port()
+	{
+		return server.getLocalPort();
+	}
+
+	//Number of work units that had to be handed out again because their worker failed
+	public long failures()
+	{
+		return failures.get();
+	}
+
+	//Function to start worker processes on this machine. A worker process that dies is started again
+	public void spawn(int workers) throws IOException
+	{
+		for(int i=0;i<workers;i++)
+			startprocess();
+	}
+
+	//The worker processes running right now
+	Process[] processes()
+	{
+		synchronized(processes)
+		{
+			return processes.toArray(new Process[0]);
+		}
+	}
+
+	//Functions used by tests to restart even a worker process that exits at once, to give up on a silent worker
+	//sooner and to start worker processes with another classpath
+	void setminuptime(long millis)
+	{
+		minuptime=millis;
+	}
+	void settimeout(int millis)
+	{
+		timeout=millis;
+	}
+	void setclasspath(String classpath)
+	{
+		this.classpath=classpath;
+	}
+
+	//Function to count the leaf nodes at the given depth, cutting the tree into units splitdepth plies below the root.
+	//Blocks until every unit has been counted by some worker. Throws IllegalStateException if the worker processes
+	//this coordinator started have all failed and no other worker is connected
+	public long perft(Position pos,int depth,int splitdepth) throws InterruptedException
+	{
+		if(depth<0||splitdepth<0)
+			throw new IllegalArgumentException("Invalid depth: "+depth);
+		if(depth<=splitdepth)
+			return new Perft().perft(pos,depth);
+		List<String> fens=new ArrayList<String>();
+		expand(new Position(pos),splitdepth,fens);
+		Job job=new Job(fens.size());
+		synchronized(jobs)
+		{
+			jobs.add(job);
+		}
+		try
+		{
+			for(String fen:fens)
+				queue.add(new Unit(ids.incrementAndGet(),fen,depth-splitdepth,job));
+			checkworkers();
+			job.remaining.await();
+		}
+		finally
+		{
+			synchronized(jobs)
+			{
+				jobs.remove(job);
+			}
+			queue.removeIf(unit->unit.job==job);
+		}
+		if(job.failure!=null)
+			throw new IllegalStateException(job.failure);
+		return job.total.get();
+	}
+
+	//Fails every waiting job if the worker processes started here are all gone and no worker is connected,
+	//as then no unit will ever be counted
+	private void checkworkers()
+	{
+		if(!spawned)
+			return;
+		synchronized(processes)
+		{
+			if(!processes.isEmpty())
+				return;
+		}
+		synchronized(connections)
+		{
+			if(!connections.isEmpty())
+				return;
+		}
+		synchronized(jobs)
+		{
+			for(Job job:jobs)
+				job.fail("No perft worker left: every worker process failed at start");
+		}
+	}
+
+	//Collects the positions splitdepth plies below pos, one per path. Transpositions are counted once per path
+	private static void expand(Position pos,int splitdepth,List<String> fens)
+	{
+		if(splitdepth==0)
+		{
+			fens.add(pos.tofen());
+			return;
+		}
+		MoveList list=new MoveList();
+		MoveGenerator.legal(pos,list);
+		for(int i=0;i<list.size();i++)
+		{
+			pos.makeMove(list.get(i));
+			expand(pos,splitdepth-1,fens);
+			pos.unmakeMove(list.get(i));
+		}
+	}
+
+	//Function to tell every worker to quit, stop listening and stop the worker processes
+	public void close() throws IOException
+	{
+		closed=true;
+		server.close();
+		synchronized(connections)
+		{
+			for(int i=0;i<connections.size();i++)
+				queue.add(new Unit(0,null,0,null));
+		}
+		synchronized(processes)
+		{
+			for(Process p:processes)
+				p.destroy();
+		}
+	}
+
+	private void accept()
+	{
+		while(!closed)
+		{
+			try
+			{
+				Socket socket=server.accept();
+				synchronized(connections)
+				{
+					connections.add(socket);
+				}
+				Thread handler=new Thread(()->serve(socket),"perft-connection");
+				handler.setDaemon(true);
+				handler.start();
+			}
+			catch(IOException e)
+			{
+				//The server socket was closed
+			}
+		}
+	}
+
+	//Hands units to one worker, one at a time, until the worker fails or the coordinator is closed
+	private void serve(Socket socket)
+	{
+		try(BufferedReader in=new BufferedReader(new InputStreamReader(socket.getInputStream(),StandardCharsets.UTF_8));
+			PrintWriter out=new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),StandardCharsets.UTF_8),true))
+		{
+			socket.setSoTimeout(timeout);
+			while(true)
+			{
+				Unit unit=queue.take();
+				if(unit.job==null)
+				{
+					out.println("QUIT");
+					return;
+				}
+				try
+				{
+					out.println("UNIT "+unit.id+" "+unit.depth+" "+unit.fen);
+					String reply=in.readLine();
+					while(reply!=null&&reply.startsWith("ALIVE "))
+						reply=in.readLine();
+					String fields[]=reply==null?null:reply.split(" ");
+					if(fields==null||fields.length!=3||!fields[0].equals("DONE")||Long.parseLong(fields[1])!=unit.id)
+						throw new IOException("Worker failed on unit "+unit.id);
+					unit.job.total.addAndGet(Long.parseLong(fields[2]));
+					unit.job.remaining.countDown();
+				}
+				//A silent worker ends up here too, with a SocketTimeoutException
+				catch(IOException|RuntimeException e)
+				{
+					failures.incrementAndGet();
+					queue.add(unit);
+					return;
+				}
+			}
+		}
+		catch(IOException|InterruptedException e)
+		{
+			//The connection is dropped. Its unit, if any, is already back in the queue
+		}
+		finally
+		{
+			synchronized(connections)
+			{
+				connections.remove(socket);
+			}
+			checkworkers();
+		}
+	}
+
+	//Starts one worker process with the classpath of this JVM, and starts it again whenever it exits before close()
+	//after having run for a while
+	private void startprocess() throws IOException
+	{
+		String java=System.getProperty("java.home")+File.separator+"bin"+File.separator+"java";
+		ProcessBuilder builder=new ProcessBuilder(java,"-cp",classpath,
+				PerftWorker.class.getName(),"localhost",Integer.toString(port()));
+		builder.inheritIO();
+		long started=System.currentTimeMillis();
+		Process process=builder.start();
+		synchronized(processes)
+		{
+			processes.add(process);
+		}
+		spawned=true;
+		Thread watcher=new Thread(()->
+		{
+			try
+			{
+				process.waitFor();
+			}
+			catch(InterruptedException e)
+			{
+				return;
+			}
+			//The new process is added before the old one is removed, so a restart never looks like the end of all workers
+			if(closed)
+				return;
+			if(System.currentTimeMillis()-started<minuptime)
+				System.err.println("Perft worker exited at start with code "+process.exitValue()+", not restarting it");
+			else
+			{
+				try
+				{
+					startprocess();
+				}
+				catch(IOException e)
+				{
+					System.err.println("Could not restart perft worker: "+e.getMessage());
+				}
+			}
+			synchronized(processes)
+			{
+				processes.remove(process);
+			}
+			checkworkers();
+		},"perft-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	//Command line entry point: PerftCoordinator <depth> <local workers> [fen]
+	//Remote workers may join with PerftWorker <host> <port> using the port printed at start
+	public static void main(String args[]) throws Exception
+	{
+		if(args.length<2)
+		{
+			System.out.println("usage: PerftCoordinator <depth> <local workers> [fen]");
+			return;
+		}
+		int depth=Integer.parseInt(args[0]);
+		StringBuilder fen=new StringBuilder();
+		for(int i=2;i<args.length;i++)
+			fen.append(i>2?" ":"").append(args[i]);
+		Position pos=Position.fromfen(fen.length()>0?fen.toString():Position.STARTFEN);
+		PerftCoordinator coordinator=new PerftCoordinator(0);
+		System.out.println("Listening on port "+coordinator.port());
+		coordinator.spawn(Integer.parseInt(args[1]));
+		long start=System.nanoTime();
+		long count=coordinator.perft(pos,depth,DEFAULT_SPLITDEPTH);
+		long elapsed=System.nanoTime()-start;
+		coordinator.close();
+		System.out.println("Nodes: "+count);
+		System.out.println("Time: "+elapsed/1000000+" ms");
+		System.out.println("NPS: "+PerftSuite.nps(count,elapsed));
+		System.out.println("Units handed out again after a worker failure: "+coordinator.failures());
+	}
+}
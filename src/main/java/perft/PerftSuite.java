@@ -0,0 +1,90 @@
+package perft;
+
+import pieces.Position;
+
+import java.io.PrintStream;
+
+/**
+ * This is the PerftSuite Class. It holds a set of standard test positions with their published leaf counts
+ * and checks the move generator against them, printing the nodes per second of every run.
+ * Positions 2 to 6 are the well known test positions from the Chess Programming Wiki, chosen because
+ * between them they hit castling, en passant, promotions, pins and checks.
+ */
+public class PerftSuite
+{
+	//Default for the largest count that is run for each position
+	public static final long DEFAULT_LIMIT=5000000L;
+
+	//Name, FEN and the expected counts for depth 1, 2, 3...
+	static final String NAMES[]={"initial","kiwipete","position 3","position 4","position 5","position 6"};
+	static final String FENS[]={
+		Position.STARTFEN,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+	};
+	static final long COUNTS[][]={
+		{20L,400L,8902L,197281L,4865609L,119060324L},
+		{48L,2039L,97862L,4085603L,193690690L},
+		{14L,191L,2812L,43238L,674624L,11030083L},
+		{6L,264L,9467L,422333L,15833292L},
+		{44L,1486L,62379L,2103487L,89941194L},
+		{46L,2079L,89890L,3894594L,164075551L}
+	};
+
+	private final PrintStream out;
+	private long totalnodes;
+	private long totaltime;
+
+	public PerftSuite(PrintStream out)
+	{
+		this.out=out;
+	}
+
+	//Function to run every position to each depth whose expected count is at most limit.
+	//Returns true if all counts matched
+	public boolean run(long limit)
+	{
+		boolean passed=true;
+		Perft perft=new Perft();
+		totalnodes=0;
+		totaltime=0;
+		for(int i=0;i<FENS.length;i++)
+			for(int depth=1;depth<=COUNTS[i].length&&COUNTS[i][depth-1]<=limit;depth++)
+			{
+				Position pos=Position.fromfen(FENS[i]);
+				long start=System.nanoTime();
+				long count=perft.perft(pos,depth);
+				long elapsed=System.nanoTime()-start;
+				boolean ok=count==COUNTS[i][depth-1];
+				passed&=ok;
+				totalnodes+=count;
+				totaltime+=elapsed;
+				if(out!=null)
+					out.println(String.format("%-11s depth %d %12d %s %8d ms %10d nps",NAMES[i],depth,count,
+							ok?"OK  ":"FAIL (expected "+COUNTS[i][depth-1]+")",elapsed/1000000,nps(count,elapsed)));
+			}
+		if(out!=null)
+			out.println(String.format("%s: %d leaf nodes in %d ms, %d nps",passed?"PASSED":"FAILED",
+					totalnodes,totaltime/1000000,nps(totalnodes,totaltime)));
+		return passed;
+	}
+
+	//Leaf nodes and time of the last run
+	public long totalnodes()
+	{
+		return totalnodes;
+	}
+	public long totaltime()
+	{
+		return totaltime;
+	}
+
+	//Nodes per second for a count and a time in nanoseconds
+	public static long nps(long nodes,long nanos)
+	{
+		return nanos==0?0:(long)(nodes*1e9/nanos);
+	}
+}
@@ -0,0 +1,87 @@
+package perft;
+
+import pieces.Position;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This is the PerftWorker Class. A worker connects to a PerftCoordinator, counts the work units it is sent
+ * and sends back the counts. It can run as its own process, on this machine or another one.
+ * The protocol is one line of text per message:
+ *   coordinator to worker:  UNIT <id> <depth> <fen>   or   QUIT
+ *   worker to coordinator:  DONE <id> <count>   and, while counting, ALIVE <id> every HEARTBEAT milliseconds
+ * The ALIVE lines tell the coordinator that a worker on a long unit is still there.
+ */
+public class PerftWorker
+{
+	//How often a worker that is counting tells the coordinator it is still there, in milliseconds
+	public static final int HEARTBEAT=5000;
+
+	//Command line entry point: PerftWorker <host> <port> [hash megabytes]
+	public static void main(String args[]) throws IOException
+	{
+		if(args.length<2)
+		{
+			System.out.println("usage: PerftWorker <host> <port> [hash megabytes]");
+			return;
+		}
+		PerftCache cache=args.length>2?new PerftCache(Integer.parseInt(args[2])):null;
+		run(args[0],Integer.parseInt(args[1]),cache);
+	}
+
+	//Function to serve work units from a coordinator until it says QUIT or goes away
+	public static void run(String host,int port,PerftCache cache) throws IOException
+	{
+		Perft perft=new Perft(cache);
+		try(Socket socket=new Socket(host,port);
+			BufferedReader in=new BufferedReader(new InputStreamReader(socket.getInputStream(),StandardCharsets.UTF_8));
+			PrintWriter out=new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),StandardCharsets.UTF_8),true))
+		{
+			//Id of the unit being counted, or null while the worker waits for one
+			AtomicReference<String> current=new AtomicReference<String>();
+			Thread heartbeat=new Thread(()->{
+				try
+				{
+					while(true)
+					{
+						Thread.sleep(HEARTBEAT);
+						String id=current.get();
+						if(id!=null)
+							out.println("ALIVE "+id);
+					}
+				}
+				catch(InterruptedException e)
+				{
+					//The worker is done
+				}
+			},"perft-heartbeat");
+			heartbeat.setDaemon(true);
+			heartbeat.start();
+			try
+			{
+				String line;
+				while((line=in.readLine())!=null&&!line.equals("QUIT"))
+				{
+					String fields[]=line.split(" ",4);
+					if(fields.length<4||!fields[0].equals("UNIT"))
+						throw new IOException("Unexpected message: "+line);
+					current.set(fields[1]);
+					long count=perft.perft(Position.fromfen(fields[3]),Integer.parseInt(fields[2]));
+					current.set(null);
+					out.println("DONE "+fields[1]+" "+count);
+				}
+			}
+			finally
+			{
+				heartbeat.interrupt();
+			}
+		}
+	}
+}
@@ -1,13 +1,9 @@
 package pieces;
 
-import chess.Cell;
-
-import java.util.ArrayList;
-
 
 /**
  * This is the Bishop Class.
- * The Move Function defines the basic rules for movement of Bishop on a chess board
+ * The Destinations Function defines the basic rules for movement of Bishop on a chess board
  * 
  *
  */
@@ -16,80 +12,22 @@ public class Bishop extends Piece{
 	//Constructor
 	public Bishop(String i,String p,int c)
 	{
+		super(Position.BISHOP);
 		setId(i);
 		setPath(p);
 		setColor(c);
 	}
 	
-	//move function defined. It returns a list of all the possible destinations of a Bishop
-	//The basic principle of Bishop Movement on chess board has been implemented
-	public ArrayList<Cell> move(Cell state[][],int x,int y)
+	//Function to return all the squares a bishop on sq attacks for the given occupancy
+	//Bishop can Move diagonally in all 4 direction (NW,NE,SW,SE) until it is blocked. The set comes from the magic tables
+	public static long attacks(int sq,long occupied)
+	{
+		return Magics.bishop(sq,occupied);
+	}
+	
+	//destinations function defined. It returns the set of all the possible destinations of a Bishop
+	public long destinations(Position pos,int sq)
 	{
-		//Bishop can Move diagonally in all 4 direction (NW,NE,SW,SE)
-		//This function defines that logic
-		possiblemoves.clear();
-		int tempx=x+1,tempy=y-1;
-		while(tempx<8&&tempy>=0)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-			{
-				possiblemoves.add(state[tempx][tempy]);
-			}
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[tempx][tempy]);
-				break;
-			}
-			tempx++;
-			tempy--;
-		}
-		tempx=x-1;tempy=y+1;
-		while(tempx>=0&&tempy<8)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-				possiblemoves.add(state[tempx][tempy]);
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[tempx][tempy]);
-				break;
-			}
-			tempx--;
-			tempy++;
-		}
-		tempx=x-1;tempy=y-1;
-		while(tempx>=0&&tempy>=0)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-				possiblemoves.add(state[tempx][tempy]);
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[tempx][tempy]);
-				break;
-			}
-			tempx--;
-			tempy--;
-		}
-		tempx=x+1;tempy=y+1;
-		while(tempx<8&&tempy<8)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-				possiblemoves.add(state[tempx][tempy]);
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[tempx][tempy]);
-				break;
-			}
-			tempx++;
-			tempy++;
-		}
-		return possiblemoves;
+		return attacks(sq,pos.occupied())&~pos.occupancy(getcolor());
 	}
-}
\ No newline at end of file
+}
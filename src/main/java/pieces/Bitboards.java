@@ -0,0 +1,98 @@
+package pieces;
+
+/**
+ * This is the Bitboards Class. It holds the constants and helpers shared by all the bitboard move generators.
+ * A bitboard is a 64-bit set of squares. Bit i stands for square i, where square = x*8+y
+ * and (x,y) are the same coordinates used by the Cell grid (x=0 is Black's back rank, y=0 is the a-file).
+ */
+public final class Bitboards
+{
+	public static final long FILE_A=0x0101010101010101L;     //All squares with y==0
+	public static final long FILE_H=FILE_A<<7;               //All squares with y==7
+	public static final long ROW_0=0xFFL;                    //Black's back rank (x==0)
+	public static final long ROW_7=ROW_0<<56;                //White's back rank (x==7)
+
+	//Squares strictly between two squares on the same row, column or diagonal, and the whole line through them.
+	//Both are empty for squares that are not aligned
+	private static final long BETWEEN[][]=new long[64][64];
+	private static final long LINE[][]=new long[64][64];
+	static
+	{
+		int dx[]={-1,-1,-1,0,0,1,1,1},dy[]={-1,0,1,-1,1,-1,0,1};
+		for(int sq=0;sq<64;sq++)
+			for(int d=0;d<8;d++)
+			{
+				long line=ray(sq,0,dx[d],dy[d])|ray(sq,0,-dx[d],-dy[d])|(1L<<sq);
+				long between=0;
+				for(int x=row(sq)+dx[d],y=column(sq)+dy[d];x>=0&&x<8&&y>=0&&y<8;x+=dx[d],y+=dy[d])
+				{
+					BETWEEN[sq][square(x,y)]=between;
+					LINE[sq][square(x,y)]=line;
+					between|=1L<<square(x,y);
+				}
+			}
+	}
+
+	private Bitboards()
+	{
+	}
+
+	//Converts Cell grid coordinates to a square index
+	public static int square(int x,int y)
+	{
+		return x*8+y;
+	}
+
+	//Row (x coordinate) of a square
+	public static int row(int sq)
+	{
+		return sq>>>3;
+	}
+
+	//Column (y coordinate) of a square
+	public static int column(int sq)
+	{
+		return sq&7;
+	}
+
+	//Walks from sq in the direction (dx,dy) until the edge of the board or the first occupied square.
+	//The blocking square is included as it may hold a piece that can be captured
+	public static long ray(int sq,long occupied,int dx,int dy)
+	{
+		long attacks=0;
+		int x=row(sq)+dx,y=column(sq)+dy;
+		while(x>=0&&x<8&&y>=0&&y<8)
+		{
+			long b=1L<<square(x,y);
+			attacks|=b;
+			if((occupied&b)!=0)
+				break;
+			x+=dx;
+			y+=dy;
+		}
+		return attacks;
+	}
+
+	//Squares strictly between a and b, or nothing if they are not on one line
+	public static long between(int a,int b)
+	{
+		return BETWEEN[a][b];
+	}
+
+	//The full line through a and b from edge to edge, or nothing if they are not on one line
+	public static long line(int a,int b)
+	{
+		return LINE[a][b];
+	}
+
+	//Returns the set of squares a single step (dx,dy) away from sq for each of the given offsets
+	public static long steps(int sq,int dx[],int dy[])
+	{
+		long targets=0;
+		int x=row(sq),y=column(sq);
+		for(int i=0;i<dx.length;i++)
+			if(x+dx[i]>=0&&x+dx[i]<8&&y+dy[i]>=0&&y+dy[i]<8)
+				targets|=1L<<square(x+dx[i],y+dy[i]);
+		return targets;
+	}
+}
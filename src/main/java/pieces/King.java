@@ -2,228 +2,89 @@ package pieces;
 
 import chess.Cell;
 
-import java.util.ArrayList;
-
 public class King extends Piece{
 	
-	private int x,y; //Extra variables for King class to keep a track of king's position
+	//Attack table. King can move only one step, so the adjacent cells of every square are computed once
+	private static final long ATTACKS[]=new long[64];
+	static
+	{
+		int posx[]={0,0,1,1,1,-1,-1,-1};
+		int posy[]={-1,1,-1,0,1,-1,0,1};
+		for(int sq=0;sq<64;sq++)
+			ATTACKS[sq]=Bitboards.steps(sq,posx,posy);
+	}
 	
 	//King Constructor
-	public King(String i,String p,int c,int x,int y)
+	public King(String i,String p,int c)
 	{
-		setx(x);
-		sety(y);
+		super(Position.KING);
 		setId(i);
 		setPath(p);
 		setColor(c);
 	}
 	
-	//general value access functions
-	public void setx(int x)
+	//Constructor that also took the square the king starts on. A king is found on the board it is asked about,
+	//so the square is not kept
+	@Deprecated
+	public King(String i,String p,int c,int x,int y)
 	{
-		this.x=x;
+		this(i,p,c);
 	}
-	public void sety(int y)
+	
+	//Function to return the adjacent squares a king on sq attacks
+	public static long attacks(int sq)
 	{
-		this.y=y;
+		return ATTACKS[sq];
 	}
-	public int getx()
+	
+	//Function to return the castling destinations of the king of the given color
+	//Castling is allowed when the position still holds the right, the squares between king and rook are empty
+	//and the king does not start on, pass or land on an attacked square
+	public static long castling(Position pos,int color)
 	{
-		return x;
+		int rights=pos.castling(),sq=color==Position.WHITE?60:4,them=color^1;
+		if(color==Position.WHITE)
+			rights&=Position.WHITE_KINGSIDE|Position.WHITE_QUEENSIDE;
+		else
+			rights&=Position.BLACK_KINGSIDE|Position.BLACK_QUEENSIDE;
+		if(rights==0||pos.kingsquare(color)!=sq||pos.isattacked(sq,them))
+			return 0;
+		long targets=0,occupied=pos.occupied();
+		if((rights&(Position.WHITE_KINGSIDE|Position.BLACK_KINGSIDE))!=0&&(occupied&(3L<<(sq+1)))==0
+				&&!pos.isattacked(sq+1,them)&&!pos.isattacked(sq+2,them))
+			targets|=1L<<(sq+2);
+		if((rights&(Position.WHITE_QUEENSIDE|Position.BLACK_QUEENSIDE))!=0&&(occupied&(7L<<(sq-3)))==0
+				&&!pos.isattacked(sq-1,them)&&!pos.isattacked(sq-2,them))
+			targets|=1L<<(sq-2);
+		return targets;
 	}
-	public int gety()
+	
+	//Destinations Function for King Overridden from Pieces
+	public long destinations(Position pos,int sq)
 	{
-		return y;
+		long targets=attacks(sq)&~pos.occupancy(getcolor());
+		if(sq==(getcolor()==Position.WHITE?60:4))
+			targets|=castling(pos,getcolor());
+		return targets;
 	}
-	//Move Function for King Overridden from Pieces
-	public ArrayList<Cell> move(Cell state[][],int x,int y)
+	
+	//Move Function Overridden so that castling moves carry their flag
+	public void move(Position pos,int sq,MoveList list)
 	{
-		//King can move only one step. So all the adjacent 8 cells have been considered.
-		possiblemoves.clear();
-		int posx[]={x,x,x+1,x+1,x+1,x-1,x-1,x-1};
-		int posy[]={y-1,y+1,y-1,y,y+1,y-1,y,y+1};
-		for(int i=0;i<8;i++)
-			if((posx[i]>=0&&posx[i]<8&&posy[i]>=0&&posy[i]<8))
-				if((state[posx[i]][posy[i]].getpiece()==null||state[posx[i]][posy[i]].getpiece().getcolor()!=this.getcolor()))
-					possiblemoves.add(state[posx[i]][posy[i]]);
-		return possiblemoves;
+		MoveGenerator.add(sq,attacks(sq)&~pos.occupancy(getcolor()),pos.occupancy(getcolor()^1),list);
+		if(sq==(getcolor()==Position.WHITE?60:4))
+			MoveGenerator.addcastling(sq,castling(pos,getcolor()),list);
 	}
 	
 	
 	
 	//Function to check if king is under threat
-	//It checks whether there is any piece of opposite color that can attack king for a given board state
+	//It checks whether there is any piece of opposite color that can attack king for a given board state.
+	//The king of this color is looked up on the board; a board without one has no king in danger
 	public boolean isindanger(Cell state[][])
-    {
-		
-		//Checking for attack from left,right,up and down
-    	for(int i=x+1;i<8;i++)
-    	{
-    		if(state[i][y].getpiece()==null)
-    			continue;
-    		else if(state[i][y].getpiece().getcolor()==this.getcolor())
-    			break;
-    		else
-    		{
-    			if ((state[i][y].getpiece() instanceof Rook) || (state[i][y].getpiece() instanceof Queen))
-    				return true;
-    			else
-    				break;
-    		}
-    	}
-    	for(int i=x-1;i>=0;i--)
-    	{
-    		if(state[i][y].getpiece()==null)
-    			continue;
-    		else if(state[i][y].getpiece().getcolor()==this.getcolor())
-    			break;
-    		else
-    		{
-    			if ((state[i][y].getpiece() instanceof Rook) || (state[i][y].getpiece() instanceof Queen))
-    				return true;
-    			else
-    				break;
-    		}
-    	}
-    	for(int i=y+1;i<8;i++)
-    	{
-    		if(state[x][i].getpiece()==null)
-    			continue;
-    		else if(state[x][i].getpiece().getcolor()==this.getcolor())
-    			break;
-    		else
-    		{
-    			if ((state[x][i].getpiece() instanceof Rook) || (state[x][i].getpiece() instanceof Queen))
-    				return true;
-    			else
-    				break;
-    		}
-    	}
-    	for(int i=y-1;i>=0;i--)
-    	{
-    		if(state[x][i].getpiece()==null)
-    			continue;
-    		else if(state[x][i].getpiece().getcolor()==this.getcolor())
-    			break;
-    		else
-    		{
-    			if ((state[x][i].getpiece() instanceof Rook) || (state[x][i].getpiece() instanceof Queen))
-    				return true;
-    			else
-    				break;
-    		}
-    	}
-    	
-    	//checking for attack from diagonal direction
-    	int tempx=x+1,tempy=y-1;
-		while(tempx<8&&tempy>=0)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-			{
-				tempx++;
-				tempy--;
-			}
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				if (state[tempx][tempy].getpiece() instanceof Bishop || state[tempx][tempy].getpiece() instanceof Queen)
-    				return true;
-    			else
-    				break;
-			}
-		}
-		tempx=x-1;tempy=y+1;
-		while(tempx>=0&&tempy<8)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-			{
-				tempx--;
-				tempy++;
-			}
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				if (state[tempx][tempy].getpiece() instanceof Bishop || state[tempx][tempy].getpiece() instanceof Queen)
-    				return true;
-    			else
-    				break;
-			}
-		}
-		tempx=x-1;tempy=y-1;
-		while(tempx>=0&&tempy>=0)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-			{
-				tempx--;
-				tempy--;
-			}
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				if (state[tempx][tempy].getpiece() instanceof Bishop || state[tempx][tempy].getpiece() instanceof Queen)
-    				return true;
-    			else
-    				break;
-			}
-		}
-		tempx=x+1;tempy=y+1;
-		while(tempx<8&&tempy<8)
-		{
-			if(state[tempx][tempy].getpiece()==null)
-			{
-				tempx++;
-				tempy++;
-			}
-			else if(state[tempx][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				if (state[tempx][tempy].getpiece() instanceof Bishop || state[tempx][tempy].getpiece() instanceof Queen)
-    				return true;
-    			else
-    				break;
-			}
-		}
-		
-		//Checking for attack from the Knight of opposite color
-		int posx[]={x+1,x+1,x+2,x+2,x-1,x-1,x-2,x-2};
-		int posy[]={y-2,y+2,y-1,y+1,y-2,y+2,y-1,y+1};
-		for(int i=0;i<8;i++)
-			if((posx[i]>=0&&posx[i]<8&&posy[i]>=0&&posy[i]<8))
-				if(state[posx[i]][posy[i]].getpiece()!=null && state[posx[i]][posy[i]].getpiece().getcolor()!=this.getcolor() && (state[posx[i]][posy[i]].getpiece() instanceof Knight))
-				{
-					return true;
-				}
-		
-		
-		//Checking for attack from the Pawn of opposite color
-		int pox[]={x+1,x+1,x+1,x,x,x-1,x-1,x-1};
-		int poy[]={y-1,y+1,y,y+1,y-1,y+1,y-1,y};
-		{
-			for(int i=0;i<8;i++)
-				if((pox[i]>=0&&pox[i]<8&&poy[i]>=0&&poy[i]<8))
-					if(state[pox[i]][poy[i]].getpiece()!=null && state[pox[i]][poy[i]].getpiece().getcolor()!=this.getcolor() && (state[pox[i]][poy[i]].getpiece() instanceof King))
-					{
-						return true;
-					}
-		}
-		if(getcolor()==0)
-		{
-			if(x>0&&y>0&&state[x-1][y-1].getpiece()!=null&&state[x-1][y-1].getpiece().getcolor()==1&&(state[x-1][y-1].getpiece() instanceof Pawn))
-				return true;
-			if(x>0&&y<7&&state[x-1][y+1].getpiece()!=null&&state[x-1][y+1].getpiece().getcolor()==1&&(state[x-1][y+1].getpiece() instanceof Pawn))
-				return true;
-		}
-		else
-		{
-			if(x<7&&y>0&&state[x+1][y-1].getpiece()!=null&&state[x+1][y-1].getpiece().getcolor()==0&&(state[x+1][y-1].getpiece() instanceof Pawn))
-				return true;
-			if(x<7&&y<7&&state[x+1][y+1].getpiece()!=null&&state[x+1][y+1].getpiece().getcolor()==0&&(state[x+1][y+1].getpiece() instanceof Pawn))
-				return true;
-		}
-    	return false;
-    }
+	{
+		Position pos=new Position(state,getcolor());
+		int sq=pos.kingsquare(getcolor());
+		return sq!=Position.NOSQUARE&&pos.isattacked(sq,getcolor()^1);
+	}
 }
\ No newline at end of file
@@ -1,9 +1,5 @@
 package pieces;
 
-import chess.Cell;
-
-import java.util.ArrayList;
-
 /**
  * This is the Knight Class inherited from the Piece abstract class
  *  
@@ -11,28 +7,35 @@ import java.util.ArrayList;
  */
 public class Knight extends Piece{
 	
+	//Attack table. There are at max 8 possible moves for a knight at any point of time.
+	//Knight moves only 2(1/2) steps, so the targets of every square are computed once
+	private static final long ATTACKS[]=new long[64];
+	static
+	{
+		int posx[]={1,1,2,2,-1,-1,-2,-2};
+		int posy[]={-2,2,-1,1,-2,2,-1,1};
+		for(int sq=0;sq<64;sq++)
+			ATTACKS[sq]=Bitboards.steps(sq,posx,posy);
+	}
+	
 	//Constructor
 	public Knight(String i,String p,int c)
 	{
+		super(Position.KNIGHT);
 		setId(i);
 		setPath(p);
 		setColor(c);
 	}
 	
-	//Move Function overridden
-	//There are at max 8 possible moves for a knight at any point of time.
-	//Knight moves only 2(1/2) steps
-	public ArrayList<Cell> move(Cell state[][],int x,int y)
+	//Function to return all the squares a knight on sq attacks
+	public static long attacks(int sq)
+	{
+		return ATTACKS[sq];
+	}
+	
+	//Destinations Function overridden
+	public long destinations(Position pos,int sq)
 	{
-		possiblemoves.clear();
-		int posx[]={x+1,x+1,x+2,x+2,x-1,x-1,x-2,x-2};
-		int posy[]={y-2,y+2,y-1,y+1,y-2,y+2,y-1,y+1};
-		for(int i=0;i<8;i++)
-			if((posx[i]>=0&&posx[i]<8&&posy[i]>=0&&posy[i]<8))
-				if((state[posx[i]][posy[i]].getpiece()==null||state[posx[i]][posy[i]].getpiece().getcolor()!=this.getcolor()))
-				{
-					possiblemoves.add(state[posx[i]][posy[i]]);
-				}
-		return possiblemoves;
+		return attacks(sq)&~pos.occupancy(getcolor());
 	}
-}
\ No newline at end of file
+}
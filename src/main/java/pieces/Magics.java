@@ -0,0 +1,141 @@
+package pieces;
+
+/**
+ * This is the Magics Class. It holds the precomputed magic bitboard tables for the sliding pieces.
+ * The blockers on a rook or bishop's relevant lines are multiplied by a magic number and shifted,
+ * giving a perfect hash into a table of attack sets. A sliding attack is therefore one table lookup.
+ * The magic numbers were searched offline for this board's square numbering, so startup only fills the tables.
+ */
+final class Magics
+{
+	private static final long ROOK_MAGIC[]={
+		0x6080004000802010L,0x0340002000411004L,0x0480200010008008L,0xC100041001000820L,
+		0x0200040200200910L,0x8300020400080100L,0x08800A0008800100L,0x020000420480250CL,
+		0x4280800080204004L,0x4000C02010004000L,0x8002004111228200L,0x2085002210010208L,
+		0x0090800400800800L,0x0080800400800200L,0xB001000402000100L,0x0044800040803100L,
+		0x0001848001400020L,0x0020044020401001L,0x4000808010002000L,0x0090008010080080L,
+		0x2082020020040810L,0x8410808004000200L,0x6030040001221088L,0x0022020001084884L,
+		0x0000400180022098L,0x0800810200220040L,0x0810080020200400L,0x0202400A00102202L,
+		0x8003010500080010L,0x1500020080800400L,0x0000020400106108L,0x1004228200050244L,
+		0x0080004000C02000L,0x0D00200040401001L,0x0108110041002000L,0x4808041000800880L,
+		0x4000041101000800L,0x0404008004802200L,0x04C0082104002210L,0x0900210042000084L,
+		0x0040802040008001L,0x0474A001D0014000L,0x2810002000808011L,0x000A022040120008L,
+		0x0C36000410220008L,0x00E2000400028080L,0x01C0010002008080L,0x0200008404460001L,
+		0x0004800040002280L,0x5002400080211300L,0xA028402001001100L,0x4010002010090100L,
+		0x0083000800100500L,0x10A0040080020080L,0x0060018208100400L,0x0100008420510200L,
+		0x0040482014800101L,0x4088801200204102L,0x0081D06002090041L,0xC000090020041001L,
+		0x0009000204904801L,0x0002000104100802L,0x0020102201080084L,0x1640030020885402L
+	};
+	private static final long BISHOP_MAGIC[]={
+		0x4430028224002200L,0x02212807A1004040L,0x4011240421400020L,0x0591041080409100L,
+		0x0102021000804000L,0x800901A050800091L,0x8002440220508082L,0x0809048201200200L,
+		0x0108100222781A02L,0x0410100A20A40188L,0x8000109102002824L,0x0007592042000630L,
+		0x0843011040010000L,0x0506010121701090L,0x0400144424444008L,0xB002014148088848L,
+		0x0640440850810200L,0xA021303802040849L,0x4110003812881010L,0x08B2800802004410L,
+		0x1002100401204008L,0x0141002200410402L,0x080900040C421204L,0x01248806004C0200L,
+		0x0012400020285290L,0x0008088002024800L,0x0000208010030540L,0x2242040002009200L,
+		0x0101001001004000L,0x0000850000806001L,0x2004290008480200L,0x002E028070404812L,
+		0x002A508482912000L,0x0081500200081801L,0x0854041200040120L,0x8100042008040100L,
+		0x0201010400660020L,0x0006008200330804L,0x00048092020C0101L,0x0408050220010880L,
+		0x0209500844002080L,0x400408840410B010L,0x00000A008200500AL,0x0840004010444200L,
+		0x0040400091010A08L,0x04A1100200900202L,0x0010048100500404L,0x0402008902000104L,
+		0x0100480250901001L,0x4606004402080403L,0x50005A8408881001L,0x1010A01084040500L,
+		0x0880021002020810L,0x8204091090108010L,0xC02AC84808004820L,0x0004100242002004L,
+		0x4000822888044008L,0x8112090C01210809L,0x0000004042109000L,0x0000002024840441L,
+		0x944600302042048AL,0x00004008A0080080L,0x0101200222480910L,0x20202A046300A200L
+	};
+
+	private static final long ROOK_MASK[]=new long[64],BISHOP_MASK[]=new long[64];
+	private static final int ROOK_SHIFT[]=new int[64],BISHOP_SHIFT[]=new int[64];
+	private static final int ROOK_OFFSET[]=new int[64],BISHOP_OFFSET[]=new int[64];
+	private static final long ROOK_TABLE[]=new long[102400];
+	private static final long BISHOP_TABLE[]=new long[5248];
+
+	static
+	{
+		int rooksize=0,bishopsize=0;
+		//Products with the magic and attacks of the subsets of one line, shared by all squares. A line inside the
+		//edges has at most 6 squares, so 64 subsets
+		long products[]=new long[64],attacks[]=new long[64];
+		for(int sq=0;sq<64;sq++)
+		{
+			long file=line(sq,1,0),rank=line(sq,0,1),diagonal=line(sq,1,1),antidiagonal=line(sq,1,-1);
+			long inner=~(Bitboards.ROW_0|Bitboards.ROW_7|Bitboards.FILE_A|Bitboards.FILE_H);
+			ROOK_MASK[sq]=(file&~(Bitboards.ROW_0|Bitboards.ROW_7))|(rank&~(Bitboards.FILE_A|Bitboards.FILE_H));
+			ROOK_SHIFT[sq]=64-Long.bitCount(ROOK_MASK[sq]);
+			ROOK_OFFSET[sq]=rooksize;
+			rooksize+=fill(sq,ROOK_MAGIC[sq],ROOK_SHIFT[sq],ROOK_TABLE,rooksize,file,ROOK_MASK[sq]&file,rank,ROOK_MASK[sq]&rank,products,attacks);
+			BISHOP_MASK[sq]=(diagonal|antidiagonal)&inner;
+			BISHOP_SHIFT[sq]=64-Long.bitCount(BISHOP_MASK[sq]);
+			BISHOP_OFFSET[sq]=bishopsize;
+			bishopsize+=fill(sq,BISHOP_MAGIC[sq],BISHOP_SHIFT[sq],BISHOP_TABLE,bishopsize,diagonal,diagonal&inner,antidiagonal,antidiagonal&inner,products,attacks);
+		}
+	}
+
+	private Magics()
+	{
+	}
+
+	//All squares on the line through sq in the direction (dx,dy), excluding sq itself
+	private static long line(int sq,int dx,int dy)
+	{
+		return Bitboards.ray(sq,0,dx,dy)|Bitboards.ray(sq,0,-dx,-dy);
+	}
+
+	//Attacks along one line for the given occupancy, using the o^(o-2r) subtraction trick in both directions.
+	//This is only used to fill the tables as it is branch free and much faster than walking the rays
+	private static long lineattacks(long slider,long occupied,long line)
+	{
+		long forward=(occupied&line)-2*slider;
+		long reverse=Long.reverse(Long.reverse(occupied&line)-2*Long.reverse(slider));
+		return (forward^reverse)&line;
+	}
+
+	//Fills the table of one square. A slider's attacks are the union of two independent lines, so the subsets of
+	//the second line and their attacks are enumerated once, into the given buffers, and combined with every subset
+	//of the first line. Both lines are walked with the carry-rippler, and nothing is allocated.
+	//The two subsets share no bits, so the product of their union with the magic is the sum of their products.
+	//Returns the number of entries used
+	private static int fill(int sq,long magic,int shift,long table[],int offset,long line1,long mask1,long line2,long mask2,
+			long products2[],long attacks2[])
+	{
+		long slider=1L<<sq;
+		int n=0;
+		long subset2=0;
+		do
+		{
+			products2[n]=subset2*magic;
+			attacks2[n++]=lineattacks(slider,subset2,line2);
+			subset2=(subset2-mask2)&mask2;
+		}
+		while(subset2!=0);
+		long subset1=0;
+		do
+		{
+			spread(table,offset,shift,subset1*magic,lineattacks(slider,subset1,line1),products2,attacks2,n);
+			subset1=(subset1-mask1)&mask1;
+		}
+		while(subset1!=0);
+		return 1<<(64-shift);
+	}
+
+	//Stores the entries for one subset of the first line combined with every subset of the second line.
+	//It is kept as a small method of its own so the JIT compiles it early during table generation
+	private static void spread(long table[],int offset,int shift,long product1,long attacks1,long products2[],long attacks2[],int n)
+	{
+		for(int i=0;i<n;i++)
+			table[offset+(int)((product1+products2[i])>>>shift)]=attacks1|attacks2[i];
+	}
+
+	//Rook attacks from sq for the given occupancy
+	static long rook(int sq,long occupied)
+	{
+		return ROOK_TABLE[ROOK_OFFSET[sq]+(int)(((occupied&ROOK_MASK[sq])*ROOK_MAGIC[sq])>>>ROOK_SHIFT[sq])];
+	}
+
+	//Bishop attacks from sq for the given occupancy
+	static long bishop(int sq,long occupied)
+	{
+		return BISHOP_TABLE[BISHOP_OFFSET[sq]+(int)(((occupied&BISHOP_MASK[sq])*BISHOP_MAGIC[sq])>>>BISHOP_SHIFT[sq])];
+	}
+}
@@ -0,0 +1,79 @@
+package pieces;
+
+/**
+ * This is the Move Class. Moves are packed into a single int so that lists of moves never allocate.
+ * Bits 0-5 hold the origin square, bits 6-11 the destination square and bits 12-15 the move flags.
+ * The flags tell captures, double pawn pushes, castling, en passant and the promotion piece apart.
+ */
+public final class Move
+{
+	public static final int NONE=0;
+
+	//Move flags
+	public static final int QUIET=0;
+	public static final int DOUBLE_PUSH=1;
+	public static final int KING_CASTLE=2;
+	public static final int QUEEN_CASTLE=3;
+	public static final int CAPTURE=4;
+	public static final int EP_CAPTURE=5;
+	public static final int PROMOTION=8;          //Plus 0-3 for Knight, Bishop, Rook, Queen
+	public static final int PROMOTION_CAPTURE=12; //Plus 0-3 for Knight, Bishop, Rook, Queen
+
+	private Move()
+	{
+	}
+
+	//Function to pack a move
+	public static int make(int from,int to,int flags)
+	{
+		return from|(to<<6)|(flags<<12);
+	}
+
+	//Origin square getter
+	public static int from(int move)
+	{
+		return move&63;
+	}
+
+	//Destination square getter
+	public static int to(int move)
+	{
+		return (move>>>6)&63;
+	}
+
+	//Flags getter
+	public static int flags(int move)
+	{
+		return (move>>>12)&15;
+	}
+
+	public static boolean iscapture(int move)
+	{
+		return (flags(move)&CAPTURE)!=0;
+	}
+
+	public static boolean ispromotion(int move)
+	{
+		return (flags(move)&PROMOTION)!=0;
+	}
+
+	public static boolean iscastle(int move)
+	{
+		return flags(move)==KING_CASTLE||flags(move)==QUEEN_CASTLE;
+	}
+
+	//Returns the piece type a pawn is promoted to. Only valid when ispromotion() is true
+	public static int promotion(int move)
+	{
+		return (flags(move)&3)+Position.KNIGHT;
+	}
+
+	//Function to write a move in coordinate notation, e.g. "e2e4" or "e7e8q"
+	public static String tostring(int move)
+	{
+		String s=Position.squarename(from(move))+Position.squarename(to(move));
+		if(ispromotion(move))
+			s+="nbrq".charAt(promotion(move)-Position.KNIGHT);
+		return s;
+	}
+}
@@ -0,0 +1,403 @@
+package pieces;
+
+/**
+ * This is the MoveGenerator Class. It generates all the moves of the side to move of a Position
+ * straight from the bitboards and appends them to a caller supplied MoveList.
+ * generate() gives pseudo-legal moves: they follow the rules of each piece but may leave the own king in check.
+ * legal() gives only the legal moves. It finds the checking pieces and the pinned pieces once per position
+ * and masks the targets of every piece with them, so no move has to be played to be tested.
+ * captures() and quiets() split the legal moves in two, so a search can look at the captures first and
+ * generate the rest only if it needs them. islegal() checks a single move, such as one remembered from another position.
+ * status() tells if the game is over, stopping at the first legal move it finds.
+ */
+public final class MoveGenerator
+{
+	//Game status of a position, as returned by status()
+	public static final int ONGOING=0,CHECKMATE=1,STALEMATE=2;
+
+	//Kinds of moves the legal generator can be asked for
+	private static final int ALL=0,CAPTURES=1,QUIETS=2;
+	private static final long LASTROWS=Bitboards.ROW_0|Bitboards.ROW_7;
+
+	private MoveGenerator()
+	{
+	}
+
+	//Function to generate all pseudo-legal moves of the side to move
+	public static void generate(Position pos,MoveList list)
+	{
+		int us=pos.side(),them=us^1;
+		long own=pos.occupancy(us),enemies=pos.occupancy(them),occupied=own|enemies;
+		pawnmoves(us,pos.pieces(us,Position.PAWN),~occupied,enemies,~0L,list);
+		if(pos.epsquare()!=Position.NOSQUARE)
+			for(long b=Pawn.attacks(them,pos.epsquare())&pos.pieces(us,Position.PAWN);b!=0;b&=b-1)
+				list.add(Move.make(Long.numberOfTrailingZeros(b),pos.epsquare(),Move.EP_CAPTURE));
+		for(long b=pos.pieces(us,Position.KNIGHT);b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			add(from,Knight.attacks(from)&~own,enemies,list);
+		}
+		for(long b=pos.pieces(us,Position.BISHOP);b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			add(from,Bishop.attacks(from,occupied)&~own,enemies,list);
+		}
+		for(long b=pos.pieces(us,Position.ROOK);b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			add(from,Rook.attacks(from,occupied)&~own,enemies,list);
+		}
+		for(long b=pos.pieces(us,Position.QUEEN);b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			add(from,Queen.attacks(from,occupied)&~own,enemies,list);
+		}
+		int king=pos.kingsquare(us);
+		if(king!=Position.NOSQUARE)
+		{
+			add(king,King.attacks(king)&~own,enemies,list);
+			addcastling(king,King.castling(pos,us),list);
+		}
+	}
+
+	//Function to generate only the legal moves of the side to move
+	public static void legal(Position pos,MoveList list)
+	{
+		legal(pos,list,ALL);
+	}
+
+	//Function to generate only the legal captures and promotions of the side to move
+	public static void captures(Position pos,MoveList list)
+	{
+		legal(pos,list,CAPTURES);
+	}
+
+	//Function to generate only the legal moves that neither capture nor promote
+	public static void quiets(Position pos,MoveList list)
+	{
+		legal(pos,list,QUIETS);
+	}
+
+	//Generates the legal moves of the given kind
+	private static void legal(Position pos,MoveList list,int kind)
+	{
+		int us=pos.side(),them=us^1;
+		int king=pos.kingsquare(us);
+		if(king==Position.NOSQUARE)
+		{
+			//Without a king nothing can be left in check
+			int start=list.size();
+			generate(pos,list);
+			if(kind!=ALL)
+				keep(list,start,kind==CAPTURES);
+			return;
+		}
+		long own=pos.occupancy(us),enemies=pos.occupancy(them),occupied=own|enemies;
+		long allowed=kind==ALL?~0L:kind==CAPTURES?enemies:~enemies;
+
+		long checkers=pos.attackers(king,them,occupied);
+		add(king,King.attacks(king)&~own&~danger(pos,king,checkers)&allowed,enemies,list);
+		if((checkers&(checkers-1))!=0)
+			return;           //Double check: only the king can move
+
+		//Other pieces must capture the checking piece or block it
+		long mask=~0L;
+		if(checkers!=0)
+			mask=checkers|Bitboards.between(king,Long.numberOfTrailingZeros(checkers));
+		else if(kind!=CAPTURES)
+			addcastling(king,King.castling(pos,us),list);
+		long pinned=pinned(pos,king);
+		//Promotions count as captures, even when the pawn moves straight ahead
+		long pawnmask=kind==ALL?mask:kind==CAPTURES?mask&(enemies|LASTROWS):mask&~enemies&~LASTROWS;
+		mask&=allowed;
+
+		long pawns=pos.pieces(us,Position.PAWN);
+		pawnmoves(us,pawns&~pinned,~occupied,enemies,pawnmask,list);
+		for(long b=pawns&pinned;b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			pawnmoves(us,1L<<from,~occupied,enemies,pawnmask&Bitboards.line(king,from),list);
+		}
+		//En passant removes two pieces from one line, which the masks cannot see, so it is tried on the board
+		if(pos.epsquare()!=Position.NOSQUARE&&kind!=QUIETS)
+			for(long b=Pawn.attacks(them,pos.epsquare())&pawns;b!=0;b&=b-1)
+			{
+				int move=Move.make(Long.numberOfTrailingZeros(b),pos.epsquare(),Move.EP_CAPTURE);
+				if(legalenpassant(pos,move))
+					list.add(move);
+			}
+		for(long b=pos.pieces(us,Position.KNIGHT)&~pinned;b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			add(from,Knight.attacks(from)&~own&mask,enemies,list);
+		}
+		long diagonal=pos.pieces(us,Position.BISHOP)|pos.pieces(us,Position.QUEEN);
+		for(long b=diagonal;b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			long targets=Bishop.attacks(from,occupied)&~own&mask;
+			if((pinned&(1L<<from))!=0)
+				targets&=Bitboards.line(king,from);
+			add(from,targets,enemies,list);
+		}
+		long straight=pos.pieces(us,Position.ROOK)|pos.pieces(us,Position.QUEEN);
+		for(long b=straight;b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			long targets=Rook.attacks(from,occupied)&~own&mask;
+			if((pinned&(1L<<from))!=0)
+				targets&=Bitboards.line(king,from);
+			add(from,targets,enemies,list);
+		}
+	}
+
+	//Function to check if the side to move has at least one legal move. It stops at the first one it finds,
+	//looking at king moves first and then at the pieces that can capture or block a check
+	public static boolean haslegalmove(Position pos)
+	{
+		int us=pos.side(),them=us^1;
+		int king=pos.kingsquare(us);
+		if(king==Position.NOSQUARE)
+		{
+			MoveList list=new MoveList();
+			generate(pos,list);
+			return !list.isempty();
+		}
+		long own=pos.occupancy(us),enemies=pos.occupancy(them),occupied=own|enemies;
+		long checkers=pos.attackers(king,them,occupied);
+		if((King.attacks(king)&~own&~danger(pos,king,checkers))!=0)
+			return true;
+		if((checkers&(checkers-1))!=0)
+			return false;
+		long mask=~0L;
+		if(checkers!=0)
+			mask=checkers|Bitboards.between(king,Long.numberOfTrailingZeros(checkers));
+		long pinned=pinned(pos,king);
+		long diagonal=pos.pieces(us,Position.BISHOP)|pos.pieces(us,Position.QUEEN);
+		for(long b=diagonal;b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			long targets=Bishop.attacks(from,occupied)&~own&mask;
+			if((pinned&(1L<<from))!=0)
+				targets&=Bitboards.line(king,from);
+			if(targets!=0)
+				return true;
+		}
+		long straight=pos.pieces(us,Position.ROOK)|pos.pieces(us,Position.QUEEN);
+		for(long b=straight;b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			long targets=Rook.attacks(from,occupied)&~own&mask;
+			if((pinned&(1L<<from))!=0)
+				targets&=Bitboards.line(king,from);
+			if(targets!=0)
+				return true;
+		}
+		for(long b=pos.pieces(us,Position.KNIGHT)&~pinned;b!=0;b&=b-1)
+			if((Knight.attacks(Long.numberOfTrailingZeros(b))&~own&mask)!=0)
+				return true;
+		long pawns=pos.pieces(us,Position.PAWN);
+		if((pawntargets(us,pawns&~pinned,~occupied,enemies)&mask)!=0)
+			return true;
+		for(long b=pawns&pinned;b!=0;b&=b-1)
+		{
+			int from=Long.numberOfTrailingZeros(b);
+			if((pawntargets(us,1L<<from,~occupied,enemies)&mask&Bitboards.line(king,from))!=0)
+				return true;
+		}
+		if(pos.epsquare()!=Position.NOSQUARE)
+			for(long b=Pawn.attacks(them,pos.epsquare())&pawns;b!=0;b&=b-1)
+				if(legalenpassant(pos,Move.make(Long.numberOfTrailingZeros(b),pos.epsquare(),Move.EP_CAPTURE)))
+					return true;
+		return false;
+	}
+
+	//Function to find out if the side to move is checkmated, stalemated or still playing
+	public static int status(Position pos)
+	{
+		if(haslegalmove(pos))
+			return ONGOING;
+		return pos.incheck(pos.side())?CHECKMATE:STALEMATE;
+	}
+
+	//Squares the king of the side to move may not step to. A slider giving check also covers
+	//the squares behind the king on its line, which the king cannot escape to
+	private static long danger(Position pos,int king,long checkers)
+	{
+		long danger=pos.attacks(pos.side()^1);
+		for(long b=checkers&~pos.pieces(Position.PAWN)&~pos.pieces(Position.KNIGHT);b!=0;b&=b-1)
+		{
+			int checker=Long.numberOfTrailingZeros(b);
+			danger|=Bitboards.line(king,checker)&~(1L<<checker);
+		}
+		return danger;
+	}
+
+	//A piece is pinned if it is the only piece between its king and an enemy slider.
+	//It may then only move along the line through the king and the slider
+	private static long pinned(Position pos,int king)
+	{
+		int us=pos.side(),them=us^1;
+		long own=pos.occupancy(us),enemies=pos.occupancy(them),occupied=own|enemies;
+		long pinned=0;
+		long snipers=(Rook.attacks(king,enemies)&(pos.pieces(them,Position.ROOK)|pos.pieces(them,Position.QUEEN)))
+				|(Bishop.attacks(king,enemies)&(pos.pieces(them,Position.BISHOP)|pos.pieces(them,Position.QUEEN)));
+		for(;snipers!=0;snipers&=snipers-1)
+		{
+			long blockers=Bitboards.between(king,Long.numberOfTrailingZeros(snipers))&occupied;
+			if((blockers&(blockers-1))==0)
+				pinned|=blockers&own;
+		}
+		return pinned;
+	}
+
+	//Plays an en passant capture to see if it leaves the own king in check
+	private static boolean legalenpassant(Position pos,int move)
+	{
+		int us=pos.side();
+		pos.makeMove(move);
+		boolean legal=!pos.incheck(us);
+		pos.unmakeMove(move);
+		return legal;
+	}
+
+	//Function to check if a move is legal for the side to move. The move may come from anywhere, so the piece,
+	//its path and the flags are all checked before the move is tried on the board
+	public static boolean islegal(Position pos,int move)
+	{
+		int us=pos.side(),from=Move.from(move),to=Move.to(move),flags=Move.flags(move);
+		if(move==Move.NONE||pos.colorat(from)!=us||pos.colorat(to)==us)
+			return false;
+		long target=1L<<to,occupied=pos.occupied();
+		boolean capture=(pos.occupancy(us^1)&target)!=0;
+		int type=pos.pieceat(from);
+		boolean ok;
+		if(type==Position.PAWN)
+		{
+			int up=us==Position.WHITE?-8:8;
+			if(flags==Move.EP_CAPTURE)
+				ok=to==pos.epsquare()&&(Pawn.attacks(us,from)&target)!=0;
+			else if(flags==Move.DOUBLE_PUSH)
+				ok=to==from+2*up&&Bitboards.row(from)==(us==Position.WHITE?6:1)&&(occupied&((1L<<(from+up))|target))==0;
+			else
+				ok=(flags==Move.QUIET||flags==Move.CAPTURE||Move.ispromotion(move))
+						&&Move.iscapture(move)==capture&&Move.ispromotion(move)==((target&LASTROWS)!=0)
+						&&(capture?(Pawn.attacks(us,from)&target)!=0:to==from+up);
+		}
+		else if(Move.iscastle(move))
+			ok=type==Position.KING&&to==from+(flags==Move.KING_CASTLE?2:-2)&&(King.castling(pos,us)&target)!=0;
+		else
+		{
+			long attacks=type==Position.KNIGHT?Knight.attacks(from):type==Position.BISHOP?Bishop.attacks(from,occupied)
+					:type==Position.ROOK?Rook.attacks(from,occupied):type==Position.QUEEN?Queen.attacks(from,occupied):King.attacks(from);
+			ok=(flags==Move.QUIET||flags==Move.CAPTURE)&&Move.iscapture(move)==capture&&(attacks&target)!=0;
+		}
+		if(!ok)
+			return false;
+		pos.makeMove(move);
+		ok=!pos.incheck(us);
+		pos.unmakeMove(move);
+		return ok;
+	}
+
+	//Function to get the legal destinations of the piece on sq, for the side to move
+	public static long legaldestinations(Position pos,int sq)
+	{
+		MoveList list=new MoveList();
+		legal(pos,list);
+		long targets=0;
+		for(int i=0;i<list.size();i++)
+			if(Move.from(list.get(i))==sq)
+				targets|=1L<<Move.to(list.get(i));
+		return targets;
+	}
+
+	//Pawn moves are generated for all the given pawns at once by shifting the whole set.
+	//Only moves that land inside mask are kept
+	private static void pawnmoves(int us,long pawns,long empty,long enemies,long mask,MoveList list)
+	{
+		int up=us==Position.WHITE?-8:8;
+		long pushrow=us==Position.WHITE?Bitboards.ROW_0<<40:Bitboards.ROW_0<<16;
+		long single=shift(pawns,up)&empty;
+		long twice=shift(single&pushrow,up)&empty&mask;
+		long left=shift(pawns&~Bitboards.FILE_A,up-1)&enemies&mask;
+		long right=shift(pawns&~Bitboards.FILE_H,up+1)&enemies&mask;
+		addpawns(single&mask,up,false,list);
+		for(;twice!=0;twice&=twice-1)
+		{
+			int to=Long.numberOfTrailingZeros(twice);
+			list.add(Move.make(to-2*up,to,Move.DOUBLE_PUSH));
+		}
+		addpawns(left,up-1,true,list);
+		addpawns(right,up+1,true,list);
+	}
+
+	//All squares the given pawns can move to, by pushes or captures, en passant aside
+	private static long pawntargets(int us,long pawns,long empty,long enemies)
+	{
+		int up=us==Position.WHITE?-8:8;
+		long pushrow=us==Position.WHITE?Bitboards.ROW_0<<40:Bitboards.ROW_0<<16;
+		long single=shift(pawns,up)&empty;
+		return single|(shift(single&pushrow,up)&empty)
+				|(shift(pawns&~Bitboards.FILE_A,up-1)&enemies)|(shift(pawns&~Bitboards.FILE_H,up+1)&enemies);
+	}
+
+	//Adds the pawn moves that land on targets, where each one came from delta squares behind
+	private static void addpawns(long targets,int delta,boolean capture,MoveList list)
+	{
+		for(;targets!=0;targets&=targets-1)
+		{
+			int to=Long.numberOfTrailingZeros(targets);
+			if(Bitboards.row(to)==0||Bitboards.row(to)==7)
+				addpromotions(to-delta,to,capture,list);
+			else
+				list.add(Move.make(to-delta,to,capture?Move.CAPTURE:Move.QUIET));
+		}
+	}
+
+	//Keeps only the captures and promotions from index start on, or only the other moves
+	private static void keep(MoveList list,int start,boolean captures)
+	{
+		int n=start;
+		for(int i=start;i<list.size();i++)
+		{
+			int move=list.get(i);
+			if((Move.iscapture(move)||Move.ispromotion(move))==captures)
+				list.set(n++,move);
+		}
+		list.truncate(n);
+	}
+
+	//Shifts a bitboard by delta squares. Positive delta moves towards row 7
+	static long shift(long b,int delta)
+	{
+		return delta>0?b<<delta:b>>>-delta;
+	}
+
+	//Adds a move from sq to each of the targets, marking those that land on an enemy piece as captures
+	static void add(int from,long targets,long enemies,MoveList list)
+	{
+		for(;targets!=0;targets&=targets-1)
+		{
+			int to=Long.numberOfTrailingZeros(targets);
+			list.add(Move.make(from,to,(enemies&(1L<<to))!=0?Move.CAPTURE:Move.QUIET));
+		}
+	}
+
+	//Adds the four promotion moves of a pawn, strongest piece first
+	static void addpromotions(int from,int to,boolean capture,MoveList list)
+	{
+		int flags=capture?Move.PROMOTION_CAPTURE:Move.PROMOTION;
+		for(int piece=3;piece>=0;piece--)
+			list.add(Move.make(from,to,flags+piece));
+	}
+
+	//Adds the castling moves of a king on sq for the given castling destinations
+	static void addcastling(int sq,long targets,MoveList list)
+	{
+		if((targets&(1L<<(sq+2)))!=0)
+			list.add(Move.make(sq,sq+2,Move.KING_CASTLE));
+		if(sq>=2&&(targets&(1L<<(sq-2)))!=0)
+			list.add(Move.make(sq,sq-2,Move.QUEEN_CASTLE));
+	}
+}
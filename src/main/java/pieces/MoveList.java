@@ -0,0 +1,68 @@
+package pieces;
+
+/**
+ * This is the MoveList Class. It is a reusable buffer of packed moves.
+ * The caller owns the list and clears it between generations, so generating moves allocates nothing.
+ */
+public class MoveList
+{
+	public static final int CAPACITY=256;     //No chess position has more than 218 legal moves
+
+	//Member Variables
+	private final int moves[];
+	private int size;
+
+	//Constructor
+	public MoveList()
+	{
+		moves=new int[CAPACITY];
+	}
+
+	//Function to append a move
+	public void add(int move)
+	{
+		moves[size++]=move;
+	}
+
+	//Move getter
+	public int get(int i)
+	{
+		return moves[i];
+	}
+
+	//Move setter, used to reorder the list in place
+	public void set(int i,int move)
+	{
+		moves[i]=move;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isempty()
+	{
+		return size==0;
+	}
+
+	//Function to empty the list. The buffer is kept
+	public void clear()
+	{
+		size=0;
+	}
+
+	//Function to drop every move from index size on
+	public void truncate(int size)
+	{
+		this.size=size;
+	}
+
+	public boolean contains(int move)
+	{
+		for(int i=0;i<size;i++)
+			if(moves[i]==move)
+				return true;
+		return false;
+	}
+}
@@ -1,9 +1,5 @@
 package pieces;
 
-import chess.Cell;
-
-import java.util.ArrayList;
-
 /**
  * This is the Pawn Class inherited from the piece
  *
@@ -13,55 +9,62 @@ public class Pawn extends Piece{
 	//COnstructors
 	public Pawn(String i,String p,int c)
 	{
+		super(Position.PAWN);
 		setId(i);
 		setPath(p);
 		setColor(c);
 	}
 	
-	//Move Function Overridden
-	public ArrayList<Cell> move(Cell state[][],int x,int y)
+	//Function to return the two diagonal squares a pawn of the given color attacks from sq
+	//White pawns move towards row 0 and Black pawns towards row 7
+	public static long attacks(int color,int sq)
+	{
+		long b=1L<<sq;
+		if(color==Position.WHITE)
+			return ((b&~Bitboards.FILE_A)>>>9)|((b&~Bitboards.FILE_H)>>>7);
+		else
+			return ((b&~Bitboards.FILE_A)<<7)|((b&~Bitboards.FILE_H)<<9);
+	}
+	
+	//Destinations Function Overridden
+	public long destinations(Position pos,int sq)
 	{
 		//Pawn can move only one step except the first chance when it may move 2 steps
 		//It can move in a diagonal fashion only for attacking a piece of opposite color
 		//It cannot move backward or move forward to attact a piece
-		
-		possiblemoves.clear();
-		if(getcolor()==0)
+		long b=1L<<sq,empty=~pos.occupied(),targets;
+		if(getcolor()==Position.WHITE)
 		{
-			if(x==0)
-				return possiblemoves;
-			if(state[x-1][y].getpiece()==null)
-			{
-				possiblemoves.add(state[x-1][y]);
-				if(x==6)
-				{
-					if(state[4][y].getpiece()==null)
-						possiblemoves.add(state[4][y]);
-				}
-			}
-			if((y>0)&&(state[x-1][y-1].getpiece()!=null)&&(state[x-1][y-1].getpiece().getcolor()!=this.getcolor()))
-				possiblemoves.add(state[x-1][y-1]);
-			if((y<7)&&(state[x-1][y+1].getpiece()!=null)&&(state[x-1][y+1].getpiece().getcolor()!=this.getcolor()))
-				possiblemoves.add(state[x-1][y+1]);
+			targets=(b>>>8)&empty;
+			targets|=((targets&(Bitboards.ROW_0<<40))>>>8)&empty;
 		}
 		else
 		{
-			if(x==8)
-				return possiblemoves;
-			if(state[x+1][y].getpiece()==null)
-			{
-				possiblemoves.add(state[x+1][y]);
-				if(x==1)
-				{
-					if(state[3][y].getpiece()==null)
-						possiblemoves.add(state[3][y]);
-				}
-			}
-			if((y>0)&&(state[x+1][y-1].getpiece()!=null)&&(state[x+1][y-1].getpiece().getcolor()!=this.getcolor()))
-				possiblemoves.add(state[x+1][y-1]);
-			if((y<7)&&(state[x+1][y+1].getpiece()!=null)&&(state[x+1][y+1].getpiece().getcolor()!=this.getcolor()))
-				possiblemoves.add(state[x+1][y+1]);
+			targets=(b<<8)&empty;
+			targets|=((targets&(Bitboards.ROW_0<<16))<<8)&empty;
+		}
+		long victims=pos.occupancy(getcolor()^1);
+		if(pos.epsquare()!=Position.NOSQUARE&&pos.side()==getcolor())
+			victims|=1L<<pos.epsquare();
+		return targets|(attacks(getcolor(),sq)&victims);
+	}
+	
+	//Move Function Overridden as pawn moves may be double pushes, en passant captures or promotions
+	public void move(Position pos,int sq,MoveList list)
+	{
+		long targets=destinations(pos,sq),enemies=pos.occupancy(getcolor()^1);
+		while(targets!=0)
+		{
+			int to=Long.numberOfTrailingZeros(targets);
+			targets&=targets-1;
+			if(to==pos.epsquare()&&(enemies&(1L<<to))==0&&Bitboards.column(to)!=Bitboards.column(sq))
+				list.add(Move.make(sq,to,Move.EP_CAPTURE));
+			else if(Bitboards.row(to)==0||Bitboards.row(to)==7)
+				MoveGenerator.addpromotions(sq,to,(enemies&(1L<<to))!=0,list);
+			else if(to-sq==16||sq-to==16)
+				list.add(Move.make(sq,to,Move.DOUBLE_PUSH));
+			else
+				list.add(Move.make(sq,to,(enemies&(1L<<to))!=0?Move.CAPTURE:Move.QUIET));
 		}
-		return possiblemoves;
 	}
 }
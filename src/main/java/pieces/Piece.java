@@ -8,7 +8,8 @@ import java.util.ArrayList;
 /**
  * This is the Piece Class. It is an abstract class from which all the actual pieces are inherited.
  * It defines all the function common to all the pieces
- * The move() function an abstract function that has to be overridden in all the inherited class
+ * The destinations() function an abstract function that has to be overridden in all the inherited class.
+ * It generates moves on the headless bitboard Position; move() adapts it to the Cell grid of the GUI
  * It implements Cloneable interface as a copy of the piece is required very often
  */
 public abstract class Piece implements Cloneable{
@@ -17,8 +18,14 @@ public abstract class Piece implements Cloneable{
 	private int color;
 	private String id=null;
 	private String path;
-	protected ArrayList<Cell> possiblemoves = new ArrayList<Cell>();  //Protected (access from child classes)
-	public abstract ArrayList<Cell> move(Cell pos[][],int x,int y);  //Abstract Function. Must be overridden
+	private final byte type;   //Piece type code, one of Position.PAWN to Position.KING
+	public abstract long destinations(Position pos,int sq);  //Abstract Function. Must be overridden
+	
+	//Constructor for the child classes, which pass their type code
+	protected Piece(int type)
+	{
+		this.type=(byte)type;
+	}
 	
 	//Id Setter
 	public void setId(String id)
@@ -50,12 +57,42 @@ public abstract class Piece implements Cloneable{
 		return id;
 	}
 	
+	//Type Getter. The type code indexes the attack tables, so no instanceof test is needed to classify a piece
+	public final int gettype()
+	{
+		return type;
+	}
+	
 	//Color Getter
 	public int getcolor()
 	{
 		return this.color;
 	}
 	
+	//Function to return the list of cells this piece can move to from (x,y) on the GUI board
+	//The board is read into a Position and the destination set is mapped back to the cells.
+	//A new list is returned on every call, so pieces hold no state and can be shared between threads
+	public ArrayList<Cell> move(Cell state[][],int x,int y)
+	{
+		ArrayList<Cell> possiblemoves=new ArrayList<Cell>();
+		if(x<0||x>7||y<0||y>7)
+			return possiblemoves;
+		long targets=destinations(new Position(state,getcolor()),Bitboards.square(x,y));
+		while(targets!=0)
+		{
+			int sq=Long.numberOfTrailingZeros(targets);
+			possiblemoves.add(state[Bitboards.row(sq)][Bitboards.column(sq)]);
+			targets&=targets-1;
+		}
+		return possiblemoves;
+	}
+	
+	//Function to append the moves of this piece from sq to a caller supplied list. Nothing is allocated
+	public void move(Position pos,int sq,MoveList list)
+	{
+		MoveGenerator.add(sq,destinations(pos,sq),pos.occupancy(getcolor()^1),list);
+	}
+	
 	//Function to return the a "shallow" copy of the object. The copy has exact same variable value but different reference
 	public Piece getcopy() throws CloneNotSupportedException
 	{
@@ -0,0 +1,538 @@
+package pieces;
+
+import chess.Cell;
+
+import java.util.Arrays;
+
+/**
+ * This is the Position Class. It is the headless model of a chess board.
+ * The board is held as 64-bit occupancy sets (bitboards), one per piece type and one per color,
+ * so that move generation and attack detection never touch the Swing Cell grid.
+ * Squares are numbered x*8+y using the same (x,y) coordinates as the Cell grid.
+ */
+public class Position
+{
+	//Colors. These are the same values returned by Piece.getcolor()
+	public static final int WHITE=0,BLACK=1;
+
+	//Piece types
+	public static final int PAWN=0,KNIGHT=1,BISHOP=2,ROOK=3,QUEEN=4,KING=5;
+
+	//Castling rights
+	public static final int WHITE_KINGSIDE=1,WHITE_QUEENSIDE=2,BLACK_KINGSIDE=4,BLACK_QUEENSIDE=8;
+
+	public static final int NOSQUARE=-1;
+	public static final String STARTFEN="rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private static final String SYMBOLS="pnbrqk";
+	private static final int EMPTY=-1;
+
+	//Castling rights that survive a move from or to each square. Moving the king or a rook, or capturing
+	//a rook on its original square, clears the matching rights
+	private static final int CASTLE_MASK[]=new int[64];
+	static
+	{
+		for(int sq=0;sq<64;sq++)
+			CASTLE_MASK[sq]=WHITE_KINGSIDE|WHITE_QUEENSIDE|BLACK_KINGSIDE|BLACK_QUEENSIDE;
+		CASTLE_MASK[60]&=~(WHITE_KINGSIDE|WHITE_QUEENSIDE);
+		CASTLE_MASK[63]&=~WHITE_KINGSIDE;
+		CASTLE_MASK[56]&=~WHITE_QUEENSIDE;
+		CASTLE_MASK[4]&=~(BLACK_KINGSIDE|BLACK_QUEENSIDE);
+		CASTLE_MASK[7]&=~BLACK_KINGSIDE;
+		CASTLE_MASK[0]&=~BLACK_QUEENSIDE;
+	}
+
+	//Member Variables
+	private final long pieces[]=new long[6];
+	private final long colors[]=new long[2];
+	private final byte board[]=new byte[64];          //Piece type on every square, for constant time lookup
+	private int side=WHITE;
+	private int castling=0;
+	private int epsquare=NOSQUARE;
+	private int halfmoves=0;
+	private int fullmoves=1;
+	private long key=0;                                //Zobrist key, kept up to date by every change to the position
+
+	//Undo stack. makeMove pushes one packed record per move: the captured piece type plus one (bits 0-2),
+	//the castling rights (bits 3-6), the en passant square plus one (bits 7-13) and the halfmove clock (bits 14-31)
+	private int undo[]=new int[256];
+	private long keys[]=new long[256];                 //Key of the position before each move on the undo stack
+	private int ply=0;
+
+	//Squares attacked by each color. A map is built the first time it is asked for after the board changed.
+	//makeMove saves the maps on a stack and unmakeMove puts them back, so going back up the tree costs nothing
+	private final long attacked[]=new long[2];
+	private int attackvalid=0;                         //Bit 1<<color is set while attacked[color] is up to date
+	private long attackstack[]=new long[512];
+	private byte validstack[]=new byte[256];
+
+	//Constructor for an empty board with White to move
+	public Position()
+	{
+		Arrays.fill(board,(byte)EMPTY);
+	}
+
+	//A constructor that returns a new position with the same data but different reference
+	public Position(Position p)
+	{
+		System.arraycopy(p.pieces,0,pieces,0,6);
+		System.arraycopy(p.colors,0,colors,0,2);
+		System.arraycopy(p.board,0,board,0,64);
+		side=p.side;
+		castling=p.castling;
+		epsquare=p.epsquare;
+		halfmoves=p.halfmoves;
+		fullmoves=p.fullmoves;
+		key=p.key;
+		attacked[WHITE]=p.attacked[WHITE];
+		attacked[BLACK]=p.attacked[BLACK];
+		attackvalid=p.attackvalid;
+	}
+
+	//A constructor that reads the pieces off the GUI board. The GUI has no castling or en passant state
+	public Position(Cell state[][],int side)
+	{
+		this();
+		for(int i=0;i<8;i++)
+			for(int j=0;j<8;j++)
+				if(state[i][j].getpiece()!=null)
+					put(Bitboards.square(i,j),state[i][j].getpiece().getcolor(),state[i][j].getpiece().gettype());
+		setside(side);
+	}
+
+	//Function to build a position from Forsyth-Edwards Notation
+	public static Position fromfen(String fen)
+	{
+		String fields[]=fen.trim().split("\\s+");
+		if(fields.length<2)
+			throw new IllegalArgumentException("Invalid FEN: "+fen);
+		Position pos=new Position();
+		int sq=0;
+		for(char ch:fields[0].toCharArray())
+		{
+			if(ch=='/')
+				continue;
+			if(Character.isDigit(ch))
+				sq+=ch-'0';
+			else
+			{
+				int type=SYMBOLS.indexOf(Character.toLowerCase(ch));
+				if(type<0||sq>63)
+					throw new IllegalArgumentException("Invalid FEN: "+fen);
+				pos.put(sq++,Character.isUpperCase(ch)?WHITE:BLACK,type);
+			}
+		}
+		if(sq!=64)
+			throw new IllegalArgumentException("Invalid FEN: "+fen);
+		pos.side=fields[1].equals("b")?BLACK:WHITE;
+		if(fields.length>2)
+			for(char ch:fields[2].toCharArray())
+				pos.castling|=ch=='K'?WHITE_KINGSIDE:ch=='Q'?WHITE_QUEENSIDE:ch=='k'?BLACK_KINGSIDE:ch=='q'?BLACK_QUEENSIDE:0;
+		if(fields.length>3&&!fields[3].equals("-"))
+			pos.epsquare=Bitboards.square('8'-fields[3].charAt(1),fields[3].charAt(0)-'a');
+		if(fields.length>4)
+			pos.halfmoves=Integer.parseInt(fields[4]);
+		if(fields.length>5)
+			pos.fullmoves=Integer.parseInt(fields[5]);
+		pos.key=Zobrist.key(pos);
+		return pos;
+	}
+
+	//Function to write the position in Forsyth-Edwards Notation
+	public String tofen()
+	{
+		StringBuilder sb=new StringBuilder();
+		for(int x=0;x<8;x++)
+		{
+			int empty=0;
+			for(int y=0;y<8;y++)
+			{
+				int sq=Bitboards.square(x,y);
+				if(pieceat(sq)<0)
+				{
+					empty++;
+					continue;
+				}
+				if(empty>0)
+					sb.append(empty);
+				empty=0;
+				char ch=SYMBOLS.charAt(pieceat(sq));
+				sb.append(colorat(sq)==WHITE?Character.toUpperCase(ch):ch);
+			}
+			if(empty>0)
+				sb.append(empty);
+			if(x<7)
+				sb.append('/');
+		}
+		sb.append(side==WHITE?" w ":" b ");
+		if(castling==0)
+			sb.append('-');
+		if((castling&WHITE_KINGSIDE)!=0)
+			sb.append('K');
+		if((castling&WHITE_QUEENSIDE)!=0)
+			sb.append('Q');
+		if((castling&BLACK_KINGSIDE)!=0)
+			sb.append('k');
+		if((castling&BLACK_QUEENSIDE)!=0)
+			sb.append('q');
+		sb.append(' ').append(squarename(epsquare));
+		sb.append(' ').append(halfmoves).append(' ').append(fullmoves);
+		return sb.toString();
+	}
+
+	//Algebraic name of a square, e.g. square 52 is "e2"
+	public static String squarename(int sq)
+	{
+		if(sq==NOSQUARE)
+			return "-";
+		return ""+(char)('a'+Bitboards.column(sq))+(char)('8'-Bitboards.row(sq));
+	}
+
+	//Function to place a piece on an empty square
+	public void put(int sq,int color,int type)
+	{
+		long b=1L<<sq;
+		pieces[type]|=b;
+		colors[color]|=b;
+		board[sq]=(byte)type;
+		key^=Zobrist.PIECES[color][type][sq];
+		attackvalid=0;
+	}
+
+	//Function to remove whatever piece stands on a square
+	public void remove(int sq)
+	{
+		if(board[sq]==EMPTY)
+			return;
+		long b=~(1L<<sq);
+		key^=Zobrist.PIECES[colorat(sq)][board[sq]][sq];
+		pieces[board[sq]]&=b;
+		colors[WHITE]&=b;
+		colors[BLACK]&=b;
+		board[sq]=EMPTY;
+		attackvalid=0;
+	}
+
+	//Returns the type of the piece on a square or -1 if the square is empty
+	public int pieceat(int sq)
+	{
+		return board[sq];
+	}
+
+	//Function to play a move on the board. The state needed to take it back is pushed on the undo stack
+	public void makeMove(int move)
+	{
+		int from=Move.from(move),to=Move.to(move),flags=Move.flags(move);
+		int us=side,them=us^1,piece=board[from];
+		int capsq=flags==Move.EP_CAPTURE?to+(us==WHITE?8:-8):to;
+		int captured=board[capsq];
+		if(ply==undo.length)
+		{
+			undo=Arrays.copyOf(undo,ply*2);
+			keys=Arrays.copyOf(keys,ply*2);
+			attackstack=Arrays.copyOf(attackstack,ply*4);
+			validstack=Arrays.copyOf(validstack,ply*2);
+		}
+		keys[ply]=key;
+		attackstack[2*ply]=attacked[WHITE];
+		attackstack[2*ply+1]=attacked[BLACK];
+		validstack[ply]=(byte)attackvalid;
+		attackvalid=0;
+		undo[ply++]=(captured+1)|(castling<<3)|((epsquare+1)<<7)|(halfmoves<<14);
+		long h=key^Zobrist.SIDE^Zobrist.CASTLING[castling];
+		if(epsquare!=NOSQUARE)
+			h^=Zobrist.EPFILE[Bitboards.column(epsquare)];
+		if(captured!=EMPTY)
+		{
+			long b=~(1L<<capsq);
+			pieces[captured]&=b;
+			colors[them]&=b;
+			board[capsq]=EMPTY;
+			h^=Zobrist.PIECES[them][captured][capsq];
+		}
+		long fromto=(1L<<from)|(1L<<to);
+		pieces[piece]^=fromto;
+		colors[us]^=fromto;
+		board[from]=EMPTY;
+		board[to]=(byte)piece;
+		long zobrist[]=Zobrist.PIECES[us][piece];
+		h^=zobrist[from]^zobrist[to];
+		if((flags&Move.PROMOTION)!=0)
+		{
+			int promoted=Move.promotion(move);
+			pieces[PAWN]^=1L<<to;
+			pieces[promoted]|=1L<<to;
+			board[to]=(byte)promoted;
+			h^=zobrist[to]^Zobrist.PIECES[us][promoted][to];
+		}
+		else if(flags==Move.KING_CASTLE)
+		{
+			moverook(to+1,to-1,us);
+			h^=Zobrist.PIECES[us][ROOK][to+1]^Zobrist.PIECES[us][ROOK][to-1];
+		}
+		else if(flags==Move.QUEEN_CASTLE)
+		{
+			moverook(to-2,to+1,us);
+			h^=Zobrist.PIECES[us][ROOK][to-2]^Zobrist.PIECES[us][ROOK][to+1];
+		}
+		castling&=CASTLE_MASK[from]&CASTLE_MASK[to];
+		epsquare=flags==Move.DOUBLE_PUSH?(from+to)>>>1:NOSQUARE;
+		h^=Zobrist.CASTLING[castling];
+		if(epsquare!=NOSQUARE)
+			h^=Zobrist.EPFILE[Bitboards.column(epsquare)];
+		key=h;
+		halfmoves=piece==PAWN||captured!=EMPTY?0:halfmoves+1;
+		if(us==BLACK)
+			fullmoves++;
+		side=them;
+	}
+
+	//Function to take back the last move played with makeMove
+	public void unmakeMove(int move)
+	{
+		int from=Move.from(move),to=Move.to(move),flags=Move.flags(move);
+		int them=side,us=them^1;
+		int record=undo[--ply];
+		key=keys[ply];
+		attacked[WHITE]=attackstack[2*ply];
+		attacked[BLACK]=attackstack[2*ply+1];
+		attackvalid=validstack[ply];
+		side=us;
+		if(us==BLACK)
+			fullmoves--;
+		castling=(record>>>3)&15;
+		epsquare=((record>>>7)&127)-1;
+		halfmoves=record>>>14;
+		if((flags&Move.PROMOTION)!=0)
+		{
+			pieces[board[to]]^=1L<<to;
+			pieces[PAWN]|=1L<<to;
+			board[to]=PAWN;
+		}
+		else if(flags==Move.KING_CASTLE)
+			moverook(to-1,to+1,us);
+		else if(flags==Move.QUEEN_CASTLE)
+			moverook(to+1,to-2,us);
+		int piece=board[to];
+		long fromto=(1L<<from)|(1L<<to);
+		pieces[piece]^=fromto;
+		colors[us]^=fromto;
+		board[to]=EMPTY;
+		board[from]=(byte)piece;
+		int captured=(record&7)-1;
+		if(captured!=EMPTY)
+		{
+			int capsq=flags==Move.EP_CAPTURE?to+(us==WHITE?8:-8):to;
+			pieces[captured]|=1L<<capsq;
+			colors[them]|=1L<<capsq;
+			board[capsq]=(byte)captured;
+		}
+	}
+
+	//Function to pass the turn without moving (a null move), as searches do to see if a position is good even
+	//when the other side gets two moves in a row. The halfmove clock restarts so that no repetition reaches past it
+	public void makenull()
+	{
+		if(ply==undo.length)
+		{
+			undo=Arrays.copyOf(undo,ply*2);
+			keys=Arrays.copyOf(keys,ply*2);
+			attackstack=Arrays.copyOf(attackstack,ply*4);
+			validstack=Arrays.copyOf(validstack,ply*2);
+		}
+		keys[ply]=key;
+		attackstack[2*ply]=attacked[WHITE];
+		attackstack[2*ply+1]=attacked[BLACK];
+		validstack[ply]=(byte)attackvalid;
+		undo[ply++]=(castling<<3)|((epsquare+1)<<7)|(halfmoves<<14);
+		key^=Zobrist.SIDE;
+		if(epsquare!=NOSQUARE)
+			key^=Zobrist.EPFILE[Bitboards.column(epsquare)];
+		epsquare=NOSQUARE;
+		halfmoves=0;
+		side^=1;
+	}
+
+	//Function to take back a null move
+	public void unmakenull()
+	{
+		int record=undo[--ply];
+		key=keys[ply];
+		attacked[WHITE]=attackstack[2*ply];
+		attacked[BLACK]=attackstack[2*ply+1];
+		attackvalid=validstack[ply];
+		epsquare=((record>>>7)&127)-1;
+		halfmoves=record>>>14;
+		side^=1;
+	}
+
+	//Moves the castling rook
+	private void moverook(int from,int to,int color)
+	{
+		long fromto=(1L<<from)|(1L<<to);
+		pieces[ROOK]^=fromto;
+		colors[color]^=fromto;
+		board[from]=EMPTY;
+		board[to]=ROOK;
+	}
+
+	//Number of moves on the undo stack
+	public int ply()
+	{
+		return ply;
+	}
+
+	//Zobrist key of the position. Equal positions have equal keys
+	public long key()
+	{
+		return key;
+	}
+
+	//Function to check if the position already occurred since the last capture or pawn move.
+	//Only positions with the same side to move can match, so every second key on the stack is compared
+	public boolean isrepetition()
+	{
+		for(int i=ply-4;i>=0&&i>=ply-halfmoves;i-=2)
+			if(keys[i]==key)
+				return true;
+		return false;
+	}
+
+	//Returns the color of the piece on a square or -1 if the square is empty
+	public int colorat(int sq)
+	{
+		long b=1L<<sq;
+		if((colors[WHITE]&b)!=0)
+			return WHITE;
+		if((colors[BLACK]&b)!=0)
+			return BLACK;
+		return -1;
+	}
+
+	//All pieces of one type, both colors
+	public long pieces(int type)
+	{
+		return pieces[type];
+	}
+
+	//All pieces of one type and color
+	public long pieces(int color,int type)
+	{
+		return pieces[type]&colors[color];
+	}
+
+	//All pieces of one color
+	public long occupancy(int color)
+	{
+		return colors[color];
+	}
+
+	//All occupied squares
+	public long occupied()
+	{
+		return colors[WHITE]|colors[BLACK];
+	}
+
+	//Returns the square of the king of the given color or NOSQUARE if there is none
+	public int kingsquare(int color)
+	{
+		long k=pieces[KING]&colors[color];
+		return k==0?NOSQUARE:Long.numberOfTrailingZeros(k);
+	}
+
+	//Returns all pieces of the given color that attack a square
+	public long attackers(int sq,int bycolor,long occupied)
+	{
+		return ((Pawn.attacks(bycolor^1,sq)&pieces[PAWN])
+				|(Knight.attacks(sq)&pieces[KNIGHT])
+				|(King.attacks(sq)&pieces[KING])
+				|(Bishop.attacks(sq,occupied)&(pieces[BISHOP]|pieces[QUEEN]))
+				|(Rook.attacks(sq,occupied)&(pieces[ROOK]|pieces[QUEEN])))&colors[bycolor];
+	}
+
+	//Returns every square attacked by the given color. After the first call on a position this is a lookup
+	public long attacks(int color)
+	{
+		if((attackvalid&(1<<color))==0)
+		{
+			long occupied=occupied(),own=colors[color];
+			long pawns=pieces[PAWN]&own;
+			long map=color==WHITE?((pawns&~Bitboards.FILE_A)>>>9)|((pawns&~Bitboards.FILE_H)>>>7)
+					:((pawns&~Bitboards.FILE_A)<<7)|((pawns&~Bitboards.FILE_H)<<9);
+			for(long b=pieces[KNIGHT]&own;b!=0;b&=b-1)
+				map|=Knight.attacks(Long.numberOfTrailingZeros(b));
+			for(long b=(pieces[BISHOP]|pieces[QUEEN])&own;b!=0;b&=b-1)
+				map|=Bishop.attacks(Long.numberOfTrailingZeros(b),occupied);
+			for(long b=(pieces[ROOK]|pieces[QUEEN])&own;b!=0;b&=b-1)
+				map|=Rook.attacks(Long.numberOfTrailingZeros(b),occupied);
+			for(long b=pieces[KING]&own;b!=0;b&=b-1)
+				map|=King.attacks(Long.numberOfTrailingZeros(b));
+			attacked[color]=map;
+			attackvalid|=1<<color;
+		}
+		return attacked[color];
+	}
+
+	//Function to check if a square is attacked by any piece of the given color.
+	//The attack map is used when it is up to date, otherwise only the lines through the square are looked at
+	public boolean isattacked(int sq,int bycolor)
+	{
+		if((attackvalid&(1<<bycolor))!=0)
+			return (attacked[bycolor]&(1L<<sq))!=0;
+		return attackers(sq,bycolor,occupied())!=0;
+	}
+
+	//Function to check if the king of the given color is under attack
+	public boolean incheck(int color)
+	{
+		int k=kingsquare(color);
+		return k!=NOSQUARE&&isattacked(k,color^1);
+	}
+
+	//Side to move getter and setter
+	public int side()
+	{
+		return side;
+	}
+	public void setside(int side)
+	{
+		if(this.side!=side)
+			key^=Zobrist.SIDE;
+		this.side=side;
+	}
+
+	//Castling rights getter and setter
+	public int castling()
+	{
+		return castling;
+	}
+	public void setcastling(int castling)
+	{
+		key^=Zobrist.CASTLING[this.castling]^Zobrist.CASTLING[castling];
+		this.castling=castling;
+	}
+
+	//En passant target square getter and setter
+	public int epsquare()
+	{
+		return epsquare;
+	}
+	public void setepsquare(int epsquare)
+	{
+		if(this.epsquare!=NOSQUARE)
+			key^=Zobrist.EPFILE[Bitboards.column(this.epsquare)];
+		if(epsquare!=NOSQUARE)
+			key^=Zobrist.EPFILE[Bitboards.column(epsquare)];
+		this.epsquare=epsquare;
+	}
+
+	//Move counters
+	public int halfmoves()
+	{
+		return halfmoves;
+	}
+	public int fullmoves()
+	{
+		return fullmoves;
+	}
+}
@@ -1,9 +1,5 @@
 package pieces;
 
-import chess.Cell;
-
-import java.util.ArrayList;
-
 /**
  * This is the Rook class inherited from abstract Piece class
  *
@@ -13,72 +9,22 @@ public class Rook extends Piece{
 	//Constructor
 	public Rook(String i,String p,int c)
 	{
+		super(Position.ROOK);
 		setId(i);
 		setPath(p);
 		setColor(c);
 	}
 	
-	//Move function defined
-	public ArrayList<Cell> move(Cell state[][],int x,int y)
+	//Function to return all the squares a rook on sq attacks for the given occupancy
+	//Rook can move only horizontally or vertically until it is blocked. The set comes from the magic tables
+	public static long attacks(int sq,long occupied)
+	{
+		return Magics.rook(sq,occupied);
+	}
+	
+	//Destinations function defined. A rook may capture the first piece of opposite color on each line
+	public long destinations(Position pos,int sq)
 	{
-		//Rook can move only horizontally or vertically
-		possiblemoves.clear();
-		int tempx=x-1;
-		while(tempx>=0)
-		{
-			if(state[tempx][y].getpiece()==null)
-				possiblemoves.add(state[tempx][y]);
-			else if(state[tempx][y].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[tempx][y]);
-				break;
-			}
-			tempx--;
-		}
-		tempx=x+1;
-		while(tempx<8)
-		{
-			if(state[tempx][y].getpiece()==null)
-				possiblemoves.add(state[tempx][y]);
-			else if(state[tempx][y].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[tempx][y]);
-				break;
-			}
-			tempx++;
-		}
-		int tempy=y-1;
-		while(tempy>=0)
-		{
-			if(state[x][tempy].getpiece()==null)
-				possiblemoves.add(state[x][tempy]);
-			else if(state[x][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[x][tempy]);
-				break;
-			}
-			tempy--;
-		}
-		tempy=y+1;
-		while(tempy<8)
-		{
-			if(state[x][tempy].getpiece()==null)
-				possiblemoves.add(state[x][tempy]);
-			else if(state[x][tempy].getpiece().getcolor()==this.getcolor())
-				break;
-			else
-			{
-				possiblemoves.add(state[x][tempy]);
-				break;
-			}
-			tempy++;
-		}
-		return possiblemoves;
+		return attacks(sq,pos.occupied())&~pos.occupancy(getcolor());
 	}
 }
@@ -0,0 +1,58 @@
+package pieces;
+
+/**
+ * This is the Zobrist Class. It holds the random numbers used to hash a Position into a 64-bit key.
+ * The key of a position is the XOR of one number per piece on its square, one for the side to move when Black is to move,
+ * one for the set of castling rights and one for the file of the en passant square.
+ * The numbers come from a fixed seed so that keys stay the same from run to run and can be stored.
+ */
+public final class Zobrist
+{
+	static final long PIECES[][][]=new long[2][6][64];    //Indexed by color, piece type and square
+	static final long CASTLING[]=new long[16];            //Indexed by the castling rights bits
+	static final long EPFILE[]=new long[8];               //Indexed by the column of the en passant square
+	static final long SIDE;                               //XORed in when Black is to move
+
+	static
+	{
+		long seed[]={0x9E3779B97F4A7C15L};
+		for(int color=0;color<2;color++)
+			for(int type=0;type<6;type++)
+				for(int sq=0;sq<64;sq++)
+					PIECES[color][type][sq]=next(seed);
+		CASTLING[0]=0;
+		for(int i=1;i<16;i++)
+			CASTLING[i]=next(seed);
+		for(int i=0;i<8;i++)
+			EPFILE[i]=next(seed);
+		SIDE=next(seed);
+	}
+
+	private Zobrist()
+	{
+	}
+
+	//SplitMix64 generator. It is tiny, fast and gives well mixed 64-bit numbers
+	private static long next(long seed[])
+	{
+		long z=(seed[0]+=0x9E3779B97F4A7C15L);
+		z=(z^(z>>>30))*0xBF58476D1CE4E5B9L;
+		z=(z^(z>>>27))*0x94D049BB133111EBL;
+		return z^(z>>>31);
+	}
+
+	//Function to compute the key of a position from scratch
+	public static long key(Position pos)
+	{
+		long key=0;
+		for(int sq=0;sq<64;sq++)
+			if(pos.pieceat(sq)>=0)
+				key^=PIECES[pos.colorat(sq)][pos.pieceat(sq)][sq];
+		if(pos.side()==Position.BLACK)
+			key^=SIDE;
+		key^=CASTLING[pos.castling()];
+		if(pos.epsquare()!=Position.NOSQUARE)
+			key^=EPFILE[Bitboards.column(pos.epsquare())];
+		return key;
+	}
+}
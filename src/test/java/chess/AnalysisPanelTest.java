@@ -0,0 +1,99 @@
+package chess;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pieces.Position;
+
+import javax.swing.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the analysis panel.
+ */
+public class AnalysisPanelTest {
+
+    // Longest the event dispatch thread may be held, in nanoseconds. Many frames long, so a loaded machine does not fail
+    // the test, yet far shorter than any search that ran on that thread would hold it
+    private static final long HELD = 250000000;
+
+    private static AnalysisPanel panel;
+
+    private static void onEdt(Runnable r) throws Exception {
+        SwingUtilities.invokeAndWait(r);
+    }
+
+    /**
+     * A first panel loads the classes of Swing and the engine, so the panels under test are timed as in a running game.
+     */
+    @BeforeAll
+    public static void warmup() throws Exception {
+        onEdt(() -> {
+            panel = new AnalysisPanel();
+            panel.setanalysing(true);
+            panel.analyse(Position.fromfen(Position.STARTFEN));
+        });
+        waitForDepth(3);
+        onEdt(() -> panel.analyse(null));
+    }
+
+    private static int shown() throws Exception {
+        int[] depth = new int[1];
+        onEdt(() -> depth[0] = panel.shown());
+        return depth[0];
+    }
+
+    private static void waitForDepth(int depth) throws Exception {
+        long end = System.currentTimeMillis() + 30000;
+        while (shown() < depth && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+        assertTrue(shown() >= depth);
+    }
+
+    /**
+     * [BLACKBOX] Test that the panel stays empty until analysis is switched on, and then shows deeper and deeper iterations.
+     */
+    @Test
+    public void testStreamsIterations() throws Exception {
+        onEdt(() -> {
+            panel = new AnalysisPanel();
+            panel.analyse(Position.fromfen(Position.STARTFEN));
+        });
+        Thread.sleep(100);
+        assertEquals(0, shown());
+        onEdt(() -> panel.setanalysing(true));
+        waitForDepth(4);
+        String[] line = new String[1];
+        onEdt(() -> line[0] = panel.line());
+        assertFalse(line[0].isEmpty());
+        onEdt(() -> panel.analyse(null));
+        assertTrue(panel.slowest() < HELD);
+    }
+
+    /**
+     * [BLACKBOX] Test that a new position restarts the analysis with its own line and drops the old one.
+     */
+    @Test
+    public void testRestartsOnNewPosition() throws Exception {
+        onEdt(() -> {
+            panel = new AnalysisPanel();
+            panel.setanalysing(true);
+            panel.analyse(Position.fromfen(Position.STARTFEN));
+        });
+        waitForDepth(3);
+        for (int i = 0; i < 10; i++) {
+            String fen = i % 2 == 0 ? "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1" : Position.STARTFEN;
+            onEdt(() -> panel.analyse(Position.fromfen(fen)));
+            Thread.sleep(30);
+        }
+        onEdt(() -> panel.analyse(Position.fromfen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1")));
+        waitForDepth(1);
+        String[] line = new String[1];
+        onEdt(() -> line[0] = panel.line());
+        assertTrue(line[0].startsWith("a1a8"));
+        onEdt(() -> panel.setanalysing(false));
+        assertFalse(panel.isanalysing());
+        assertTrue(panel.slowest() < HELD);
+    }
+}
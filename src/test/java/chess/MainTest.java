@@ -166,8 +166,7 @@ public class MainTest {
         assertFalse(main.checkmate(1));
     }
 
-    // Fault: checkmate returns true on stalemate
-    // @Test
+    @Test
     public void testCheckMateFalseStaleMate() {
         Main.bk = new King("BK","/Black_King.png",1,0, 3);
         Main.wk = new King("WK","/White_King.png", 0, 2, 3);
@@ -177,6 +176,8 @@ public class MainTest {
         main.boardState = board;
         assertFalse(main.checkmate(0));
         assertFalse(main.checkmate(1));
+        assertTrue(main.stalemate(1));
+        assertFalse(main.stalemate(0));
     }
 
     @Test
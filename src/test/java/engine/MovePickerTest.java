@@ -0,0 +1,96 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the staged move picker.
+ */
+public class MovePickerTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static List<Integer> pick(Position pos, int hashmove, int[] killers, int[] history) {
+        MovePicker picker = new MovePicker();
+        picker.init(pos, hashmove, killers, history);
+        List<Integer> moves = new ArrayList<>();
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            moves.add(move);
+        }
+        assertEquals(Move.NONE, picker.next());
+        return moves;
+    }
+
+    /**
+     * [BLACKBOX] Test that every legal move is handed out exactly once, whatever the hash move and killers are.
+     */
+    @Test
+    public void testEveryMoveOnce() {
+        String[] fens = {Position.STARTFEN, KIWIPETE, "4k3/8/8/8/1b6/8/3P4/4K2r w - - 0 1", "k7/8/1Q6/8/8/8/8/7K b - - 0 1"};
+        int[] bogus = {Move.make(60, 62, Move.KING_CASTLE), Move.make(12, 28, Move.DOUBLE_PUSH)};
+        for (String fen : fens) {
+            Position pos = Position.fromfen(fen);
+            MoveList legal = new MoveList();
+            MoveGenerator.legal(pos, legal);
+            int last = legal.isempty() ? Move.NONE : legal.get(legal.size() - 1);
+            for (int hashmove : new int[]{Move.NONE, last, Move.make(0, 63, Move.QUIET)}) {
+                List<Integer> moves = pick(pos, hashmove, bogus, new int[2 << 12]);
+                assertEquals(legal.size(), moves.size(), fen);
+                for (int i = 0; i < legal.size(); i++) {
+                    assertTrue(moves.contains(legal.get(i)), fen + " " + Move.tostring(legal.get(i)));
+                }
+                if (hashmove == last && hashmove != Move.NONE) {
+                    assertEquals(hashmove, (int) moves.get(0));
+                }
+            }
+            assertEquals(fen, pos.tofen());
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test the order of the stages: hash move, winning captures, killers, quiets by history, losing captures.
+     */
+    @Test
+    public void testStageOrder() {
+        Position pos = Position.fromfen(KIWIPETE);
+        int hashmove = Move.make(60, 62, Move.KING_CASTLE);
+        int killer = Move.make(63, 61, Move.QUIET);
+        int favourite = Move.make(48, 32, Move.DOUBLE_PUSH);
+        int[] history = new int[2 << 12];
+        history[favourite & 0xFFF] = 100;
+        List<Integer> moves = pick(pos, hashmove, new int[]{Move.make(59, 58, Move.QUIET), killer}, history);
+        assertEquals(hashmove, (int) moves.get(0));
+        int killerat = moves.indexOf(killer);
+        int favouriteat = moves.indexOf(favourite);
+        int firstquiet = -1;
+        int lastgood = -1;
+        int firstbad = moves.size();
+        for (int i = 1; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.iscapture(move) || Move.ispromotion(move)) {
+                if (StaticExchange.see(pos, move, new int[StaticExchange.BUFFER]) >= 0) {
+                    lastgood = i;
+                } else {
+                    firstbad = Math.min(firstbad, i);
+                }
+            } else if (firstquiet < 0 && i != killerat) {
+                firstquiet = i;
+            }
+        }
+        assertTrue(lastgood > 0 && lastgood < killerat);
+        assertTrue(killerat < firstquiet);
+        assertEquals(firstquiet, favouriteat);
+        assertTrue(firstbad > favouriteat && firstbad < moves.size());
+        for (int i = firstbad; i < moves.size(); i++) {
+            assertTrue(Move.iscapture(moves.get(i)));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the multi-PV search.
+ */
+public class MultiPVTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    /**
+     * [BLACKBOX] Test that the first line is the single best move and that every line starts with a different legal move.
+     */
+    @Test
+    public void testDistinctLines() {
+        Position pos = Position.fromfen(KIWIPETE);
+        Search single = new Search();
+        int best = single.search(pos, 5, 60000);
+        MultiPV multi = new MultiPV();
+        assertEquals(4, multi.search(pos, 4, 5, 60000));
+        assertEquals(best, multi.move(0));
+        assertEquals(single.score(), multi.score(0));
+        assertEquals(single.nodes(), multi.nodes(0));
+        MoveList legal = new MoveList();
+        MoveGenerator.legal(pos, legal);
+        Set<Integer> moves = new HashSet<>();
+        long total = 0;
+        for (int i = 0; i < multi.lines(); i++) {
+            assertTrue(legal.contains(multi.move(i)));
+            assertTrue(moves.add(multi.move(i)));
+            assertEquals(multi.move(i), multi.pv(i)[0]);
+            assertEquals(5, multi.depth(i));
+            total += multi.nodes(i);
+        }
+        assertEquals(total, multi.nodes());
+        assertEquals(KIWIPETE, pos.tofen());
+    }
+
+    /**
+     * [BLACKBOX] Test that a stop after a search has ended does not cut the next search short.
+     */
+    @Test
+    public void testStopBetweenSearches() {
+        Position pos = Position.fromfen(KIWIPETE);
+        MultiPV multi = new MultiPV();
+        multi.stop();
+        assertEquals(3, multi.search(pos, 3, 4, 60000));
+        for (int i = 0; i < multi.lines(); i++) {
+            assertEquals(4, multi.depth(i));
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that a position with fewer moves than lines asked for gives one line per move, each with a score.
+     */
+    @Test
+    public void testFewerMoves() {
+        MultiPV multi = new MultiPV();
+        assertEquals(1, multi.search(Position.fromfen("k7/8/2K5/8/8/8/8/1R6 b - - 0 1"), 3, 4, 60000));
+        assertEquals("a8a7", Move.tostring(multi.move(0)));
+        assertTrue(multi.depth(0) > 0);
+        assertEquals(0, multi.search(Position.fromfen("k7/8/1Q6/8/8/8/8/7K b - - 0 1"), 3, 4, 60000));
+        assertEquals(2, multi.search(Position.fromfen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 2, 4, 60000));
+        assertEquals("a1a8", Move.tostring(multi.move(0)));
+        assertEquals(Search.MATE - 1, multi.score(0));
+        assertTrue(multi.score(1) < multi.score(0));
+    }
+
+    /**
+     * [WHITEBOX] Test that a single search after a multi-PV one searches every root move again.
+     */
+    @Test
+    public void testExcludeCleared() {
+        Search search = new Search();
+        Position pos = Position.fromfen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        search.exclude(new int[]{Move.make(56, 0, Move.QUIET)});
+        assertNotEquals("a1a8", Move.tostring(search.search(pos, 4, 60000)));
+        search.exclude(null);
+        assertEquals("a1a8", Move.tostring(search.search(pos, 4, 60000)));
+    }
+}
@@ -0,0 +1,134 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the Lazy SMP search.
+ */
+public class ParallelSearchTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final long SLACK = 5000;  // Margin on wall-clock bounds for a loaded machine, in milliseconds
+
+    /**
+     * [BLACKBOX] Test that one thread searches exactly like the plain search.
+     */
+    @Test
+    public void testSingleThreadMatchesSearch() {
+        Position pos = Position.fromfen(KIWIPETE);
+        Search search = new Search();
+        int move = search.search(pos, 5, 60000);
+        ParallelSearch parallel = new ParallelSearch(1);
+        try {
+            assertEquals(move, parallel.search(pos, 5, 60000));
+            assertEquals(search.nodes(), parallel.main().nodes());
+            assertEquals(search.score(), parallel.main().score());
+            assertEquals(1, parallel.threadnodes().length);
+        } finally {
+            parallel.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0));
+    }
+
+    /**
+     * [BLACKBOX] Test that several threads find a mate and return a legal move within the time budget.
+     */
+    @Test
+    public void testHelpersShareTheWork() {
+        ParallelSearch parallel = new ParallelSearch(4);
+        try {
+            int move = parallel.search(Position.fromfen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 10, 5000);
+            assertEquals("a1a8", Move.tostring(move));
+            assertEquals(Search.MATE - 1, parallel.main().score());
+
+            Position pos = Position.fromfen(KIWIPETE);
+            long start = System.currentTimeMillis();
+            move = parallel.search(pos, 300);
+            assertTrue(System.currentTimeMillis() - start < 300 + SLACK);
+            MoveList legal = new MoveList();
+            MoveGenerator.legal(pos, legal);
+            assertTrue(legal.contains(move));
+            assertEquals(KIWIPETE, pos.tofen());
+            long[] nodes = parallel.threadnodes();
+            assertEquals(4, nodes.length);
+            long total = 0;
+            for (long n : nodes) {
+                total += n;
+            }
+            assertEquals(total, parallel.main().totalnodes());
+            assertTrue(total > nodes[0]);
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that stopping a parallel search from another thread ends every thread.
+     */
+    @Test
+    public void testStop() throws InterruptedException {
+        ParallelSearch parallel = new ParallelSearch(3);
+        int[] result = new int[1];
+        Thread thread = new Thread(() -> result[0] = parallel.search(Position.fromfen(Position.STARTFEN), 60000));
+        thread.start();
+        Thread.sleep(300);
+        parallel.stop();
+        thread.join(SLACK);
+        assertFalse(thread.isAlive());
+        assertNotEquals(Move.NONE, result[0]);
+        parallel.shutdown();
+    }
+
+    /**
+     * [BLACKBOX] Test that a stop that comes before the search has started still ends it, and only that search.
+     */
+    @Test
+    public void testStopBeforeStart() {
+        ParallelSearch parallel = new ParallelSearch(2);
+        try {
+            parallel.stop();
+            long start = System.currentTimeMillis();
+            parallel.search(Position.fromfen(Position.STARTFEN), Search.MAXPLY, 60000);
+            assertTrue(System.currentTimeMillis() - start < SLACK);
+            assertEquals(0, parallel.main().depth());
+            assertNotEquals(Move.NONE, parallel.search(Position.fromfen(Position.STARTFEN), 4, 60000));
+            assertEquals(4, parallel.main().depth());
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that a search without an end is brought to one by a time limit set while it runs or before it
+     * starts, and still returns the move of a finished iteration.
+     */
+    @Test
+    public void testLimit() throws InterruptedException {
+        ParallelSearch parallel = new ParallelSearch(2);
+        try {
+            int[] result = new int[1];
+            Thread thread = new Thread(() -> result[0] = parallel.search(Position.fromfen(Position.STARTFEN), Search.MAXPLY, Search.FOREVER));
+            long start = System.currentTimeMillis();
+            thread.start();
+            Thread.sleep(200);
+            parallel.setlimit(300);
+            thread.join(2 * SLACK);
+            assertFalse(thread.isAlive());
+            assertTrue(System.currentTimeMillis() - start < 500 + SLACK);
+            assertNotEquals(Move.NONE, result[0]);
+            assertTrue(parallel.main().depth() > 0);
+            parallel.setlimit(100);
+            start = System.currentTimeMillis();
+            assertNotEquals(Move.NONE, parallel.search(Position.fromfen(Position.STARTFEN), Search.MAXPLY, Search.FOREVER));
+            assertTrue(System.currentTimeMillis() - start < 100 + SLACK);
+        } finally {
+            parallel.shutdown();
+        }
+    }
+}
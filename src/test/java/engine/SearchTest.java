@@ -0,0 +1,178 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the alpha-beta search and the evaluation it uses.
+ */
+public class SearchTest {
+
+    private static final long SLACK = 5000;  // Margin on wall-clock bounds for a loaded machine, in milliseconds
+
+    /**
+     * [BLACKBOX] Test that the start position is level and that a position scores the same for both sides when mirrored.
+     */
+    @Test
+    public void testEvaluateSymmetry() {
+        assertEquals(0, Evaluator.evaluate(Position.fromfen(Position.STARTFEN)));
+        int white = Evaluator.evaluate(Position.fromfen("4k3/8/8/8/8/2N5/3P4/4K3 w - - 0 1"));
+        int black = Evaluator.evaluate(Position.fromfen("4k3/3p4/2n5/8/8/8/8/4K3 b - - 0 1"));
+        assertEquals(white, black);
+        assertTrue(white > Evaluator.VALUES[Position.KNIGHT]);
+    }
+
+    /**
+     * [BLACKBOX] Test that a mate in one is found and scored as a mate.
+     */
+    @Test
+    public void testMateInOne() {
+        Search search = new Search();
+        int move = search.search(Position.fromfen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 10, 5000);
+        assertEquals("a1a8", Move.tostring(move));
+        assertEquals(Search.MATE - 1, search.score());
+        assertEquals(move, search.pv()[0]);
+    }
+
+    /**
+     * [BLACKBOX] Test that a queen left hanging is taken.
+     */
+    @Test
+    public void testWinsMaterial() {
+        int move = new Search().search(Position.fromfen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"), 4, 5000);
+        assertEquals("d2d5", Move.tostring(move));
+    }
+
+    /**
+     * [BLACKBOX] Test that a shallow search sees the recapture at the end of its depth and leaves a defended pawn alone.
+     */
+    @Test
+    public void testQuiescence() {
+        Search search = new Search();
+        int move = search.search(Position.fromfen("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1"), 1, 5000);
+        assertNotEquals("d1d5", Move.tostring(move));
+        assertTrue(search.qnodes() > 0 && search.qnodes() <= search.nodes());
+        move = search.search(Position.fromfen("4k3/8/8/3p4/8/8/8/3QK3 w - - 0 1"), 1, 5000);
+        assertEquals("d1d5", Move.tostring(move));
+    }
+
+    /**
+     * [BLACKBOX] Test that a legal move comes back within the time budget and that the position is left unchanged.
+     */
+    @Test
+    public void testTimeBudget() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        Position pos = Position.fromfen(fen);
+        Search search = new Search();
+        long start = System.currentTimeMillis();
+        int move = search.search(pos, 300);
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed < 300 + SLACK, "took " + elapsed + " ms");
+        MoveList legal = new MoveList();
+        MoveGenerator.legal(pos, legal);
+        assertTrue(legal.contains(move));
+        assertTrue(search.depth() >= 2);
+        assertTrue(search.ebf() > 1);
+        assertTrue(search.nodes() > 0);
+        assertEquals(fen, pos.tofen());
+    }
+
+    /**
+     * [BLACKBOX] Test that every combination of pruning techniques still finds the mate and the material win,
+     * that the exact techniques keep the score and that all of them together search fewer nodes than none.
+     */
+    @Test
+    public void testPruningOptions() {
+        for (int options = 0; options <= Search.ALL; options++) {
+            Search search = new Search();
+            search.setoptions(options);
+            assertEquals(options, search.options());
+            assertEquals("a1a8", Move.tostring(search.search(Position.fromfen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 10, 5000)));
+            assertEquals(Search.MATE - 1, search.score());
+            assertEquals("d2d5", Move.tostring(search.search(Position.fromfen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"), 4, 5000)));
+        }
+        Position pos = Position.fromfen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Search none = new Search();
+        none.setoptions(0);
+        int move = none.search(pos, 5, 60000);
+        Search exact = new Search();
+        exact.setoptions(Search.PVS | Search.ASPIRATION);
+        assertEquals(move, exact.search(pos, 5, 60000));
+        assertEquals(none.score(), exact.score());
+        Search all = new Search();
+        assertEquals(Search.ALL, all.options());
+        all.search(pos, 5, 60000);
+        assertTrue(all.nodes() < none.nodes());
+    }
+
+    /**
+     * [WHITEBOX] Test that a side with only pawns left never tries a null move, as passing could be its best option.
+     */
+    @Test
+    public void testNullMoveZugzwang() {
+        Position pos = Position.fromfen("8/8/8/4k3/8/4K3/4P3/8 w - - 0 1");
+        Search with = new Search();
+        int move = with.search(pos, 6, 60000);
+        Search without = new Search();
+        without.setoptions(Search.ALL & ~Search.NULLMOVE);
+        assertEquals(move, without.search(pos, 6, 60000));
+        assertEquals(with.nodes(), without.nodes());
+        assertEquals(with.score(), without.score());
+    }
+
+    /**
+     * [BLACKBOX] Test a side without moves and a side with a single move.
+     */
+    @Test
+    public void testNoChoice() {
+        Search search = new Search();
+        assertEquals(Move.NONE, search.search(Position.fromfen("k7/8/1Q6/8/8/8/8/7K b - - 0 1"), 1000));
+        int move = search.search(Position.fromfen("k7/8/2K5/8/8/8/8/1R6 b - - 0 1"), 1000);
+        assertEquals("a8a7", Move.tostring(move));
+    }
+
+    /**
+     * [BLACKBOX] Test that a search stopped from another thread returns promptly with the move of a finished iteration.
+     */
+    @Test
+    public void testStop() throws InterruptedException {
+        Search search = new Search();
+        int[] result = new int[1];
+        Thread thread = new Thread(() -> result[0] = search.search(Position.fromfen(Position.STARTFEN), 60000));
+        thread.start();
+        Thread.sleep(200);
+        search.stop();
+        thread.join(SLACK);
+        assertFalse(thread.isAlive());
+        assertNotEquals(Move.NONE, result[0]);
+        assertEquals(result[0], search.bestmove());
+    }
+
+    /**
+     * [BLACKBOX] Test that the listener hears of every finished iteration in order, and that a stop after a search has
+     * ended does not cut the next search short.
+     */
+    @Test
+    public void testListener() {
+        Search search = new Search();
+        List<Integer> depths = new ArrayList<>();
+        search.setlistener(s -> depths.add(s.depth()));
+        search.search(Position.fromfen(Position.STARTFEN), 4, 60000);
+        assertEquals(Arrays.asList(1, 2, 3, 4), depths);
+        search.stop();
+        depths.clear();
+        int move = search.search(Position.fromfen(Position.STARTFEN), 4, 60000);
+        assertNotEquals(Move.NONE, move);
+        assertEquals(4, search.depth());
+        assertEquals(Arrays.asList(1, 2, 3, 4), depths);
+    }
+}
@@ -0,0 +1,49 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+import pieces.Move;
+import pieces.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the static exchange evaluation of captures.
+ */
+public class StaticExchangeTest {
+
+    private static int see(String fen, int from, int to, int flags) {
+        return StaticExchange.see(Position.fromfen(fen), Move.make(from, to, flags), new int[StaticExchange.BUFFER]);
+    }
+
+    /**
+     * [BLACKBOX] Test captures of undefended and defended pieces, and a capture the defender cannot answer.
+     */
+    @Test
+    public void testSimpleExchanges() {
+        assertEquals(100, see("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1", 60, 28, Move.CAPTURE));
+        assertEquals(100, see("4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1", 36, 27, Move.CAPTURE));
+        assertEquals(-700, see("4k3/8/2p5/3p4/4P3/8/8/3QK3 w - - 0 1", 59, 27, Move.CAPTURE));
+        assertEquals(900, see("4k3/8/8/3q4/4K3/8/8/8 w - - 0 1", 36, 27, Move.CAPTURE));
+    }
+
+    /**
+     * [BLACKBOX] Test longer exchanges with pieces lined up behind each other (x-rays).
+     */
+    @Test
+    public void testXrays() {
+        assertEquals(-220, see("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1", 43, 28, Move.CAPTURE));
+        assertEquals(500, see("4k3/8/8/3r4/8/8/3Q4/3RK3 w - - 0 1", 51, 27, Move.CAPTURE));
+        assertEquals(-800, see("3rk3/3r4/8/3p4/8/8/3Q4/3RK3 w - - 0 1", 51, 27, Move.CAPTURE));
+    }
+
+    /**
+     * [BLACKBOX] Test en passant captures and promotions, with and without a capture.
+     */
+    @Test
+    public void testSpecialMoves() {
+        assertEquals(100, see("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", 28, 19, Move.EP_CAPTURE));
+        assertEquals(-100, see("3rk3/2P5/8/8/8/8/8/4K3 w - - 0 1", 10, 2, Move.PROMOTION + 3));
+        assertEquals(400, see("3rk3/2P5/8/8/8/8/8/4K3 w - - 0 1", 10, 3, Move.PROMOTION_CAPTURE + 3));
+        assertEquals(0, see(Position.STARTFEN, 52, 36, Move.DOUBLE_PUSH));
+    }
+}
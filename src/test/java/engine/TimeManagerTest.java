@@ -0,0 +1,86 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+import pieces.Move;
+import pieces.MoveGenerator;
+import pieces.MoveList;
+import pieces.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the time manager of the engine.
+ */
+public class TimeManagerTest {
+
+    private static final long SLACK = 5000;  // Margin on wall-clock bounds for a loaded machine, in milliseconds
+
+    /**
+     * [BLACKBOX] Test that both budgets leave time on the clock, that the soft one is the smaller and that a nearly
+     * empty clock still gives a budget.
+     */
+    @Test
+    public void testBudgets() {
+        TimeManager time = new TimeManager(10000, 1);
+        assertTrue(time.hard() < 10000);
+        assertTrue(time.soft() > 0 && time.soft() < time.hard());
+        TimeManager many = new TimeManager(10000, 20);
+        assertTrue(many.soft() < time.soft());
+        assertTrue(many.hard() < time.hard());
+        TimeManager empty = new TimeManager(0, 1);
+        assertTrue(empty.soft() > 0 && empty.hard() > 0);
+        time.cap(1000);
+        assertEquals(1000, time.hard());
+        assertTrue(time.soft() <= 1000);
+    }
+
+    /**
+     * [BLACKBOX] Test that a best move that keeps changing gets more time than one that stays the same.
+     */
+    @Test
+    public void testStability() {
+        int[] moves = {Move.make(52, 36, Move.DOUBLE_PUSH), Move.make(51, 35, Move.DOUBLE_PUSH)};
+        TimeManager stable = new TimeManager(10000, 1);
+        TimeManager unstable = new TimeManager(10000, 1);
+        long elapsed = 0;
+        while (stable.next(moves[0], 20, elapsed)) {
+            elapsed += 10;
+        }
+        long stabletime = elapsed;
+        elapsed = 0;
+        for (int i = 0; unstable.next(moves[i & 1], 20, elapsed); i++) {
+            elapsed += 10;
+        }
+        assertTrue(elapsed > stabletime);
+        assertTrue(elapsed < unstable.hard());
+        TimeManager slow = new TimeManager(10000, 1);
+        assertTrue(slow.next(moves[0], 20, 10));
+        assertFalse(slow.next(moves[0], 20, slow.hard() / 2));
+    }
+
+    /**
+     * [BLACKBOX] Test that a search run by the time manager plays a legal move within the hard budget.
+     */
+    @Test
+    public void testSearchWithinBudget() {
+        Position pos = Position.fromfen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        TimeManager time = new TimeManager(1000, 1);
+        Search search = new Search();
+        assertTrue(time.hard() < 1000);
+        long start = System.currentTimeMillis();
+        int move = search.search(pos, time);
+        assertTrue(System.currentTimeMillis() - start < time.hard() + SLACK);
+        assertTrue(search.depth() < Search.MAXPLY);
+        MoveList legal = new MoveList();
+        MoveGenerator.legal(pos, legal);
+        assertTrue(legal.contains(move));
+        ParallelSearch parallel = new ParallelSearch(2);
+        try {
+            start = System.currentTimeMillis();
+            assertTrue(legal.contains(parallel.search(pos, new TimeManager(1000, 1))));
+            assertTrue(System.currentTimeMillis() - start < time.hard() + SLACK);
+        } finally {
+            parallel.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+import pieces.Move;
+import pieces.Position;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the bucketed, lock-free transposition table.
+ */
+public class TranspositionTableTest {
+
+    /**
+     * [BLACKBOX] Test that a stored entry is found under its key only and unpacks to what was stored.
+     */
+    @Test
+    public void testStoreProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.make(12, 4, Move.PROMOTION_CAPTURE + 3);
+        table.store(12345L, move, -Search.MATE + 7, 9, TranspositionTable.LOWER);
+        long entry = table.probe(12345L);
+        assertNotEquals(0, entry);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-Search.MATE + 7, TranspositionTable.score(entry));
+        assertEquals(9, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(0, table.probe(54321L));
+        assertEquals(0.5, table.hitrate());
+        assertEquals(Integer.bitCount(table.size()), 1);
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    /**
+     * [WHITEBOX] Test that the first entry of a bucket keeps the deepest result and the second takes the rest.
+     */
+    @Test
+    public void testReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long step = table.size() / 2;
+        table.store(5, 1, 10, 8, TranspositionTable.EXACT);
+        table.store(5 + step, 2, 20, 3, TranspositionTable.EXACT);
+        table.store(5 + 2 * step, 3, 30, 2, TranspositionTable.EXACT);
+        assertEquals(1, TranspositionTable.move(table.probe(5)));
+        assertEquals(0, table.probe(5 + step));
+        assertEquals(3, TranspositionTable.move(table.probe(5 + 2 * step)));
+        table.store(5 + step, 2, 20, 9, TranspositionTable.EXACT);
+        assertEquals(2, TranspositionTable.move(table.probe(5 + step)));
+        assertEquals(3, TranspositionTable.move(table.probe(5 + 2 * step)));
+        table.newsearch();
+        table.store(5 + 3 * step, 4, 40, 1, TranspositionTable.EXACT);
+        assertEquals(4, TranspositionTable.move(table.probe(5 + 3 * step)));
+        assertEquals(0, table.probe(5 + step));
+        table.store(5 + 3 * step, Move.NONE, 50, 2, TranspositionTable.UPPER);
+        assertEquals(4, TranspositionTable.move(table.probe(5 + 3 * step)));
+    }
+
+    /**
+     * [BLACKBOX] Test that threads writing the same buckets at once never make an entry read back wrong.
+     */
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        long step = table.size() / 2;
+        AtomicBoolean wrong = new AtomicBoolean(false);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t + 1;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200000; i++) {
+                    long key = (i % 16) + id * step;
+                    table.store(key, id, id * 100, id, TranspositionTable.EXACT);
+                    for (int other = 1; other <= threads.length; other++) {
+                        long entry = table.probe((i % 16) + other * step);
+                        if (entry != 0 && (TranspositionTable.move(entry) != other || TranspositionTable.score(entry) != other * 100)) {
+                            wrong.set(true);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(wrong.get());
+    }
+
+    /**
+     * [BLACKBOX] Test that a search fills the table and that searching again with the same table takes fewer nodes.
+     */
+    @Test
+    public void testSearchReusesTable() {
+        TranspositionTable table = new TranspositionTable(4);
+        Position pos = Position.fromfen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Search search = new Search(table, null);
+        int move = search.search(pos, 5, 60000);
+        long nodes = search.nodes();
+        assertTrue(table.fill() > 0);
+        assertTrue(table.hits() > 0);
+        assertEquals(move, search.search(pos, 5, 60000));
+        assertTrue(search.nodes() < nodes);
+        table.clear();
+        assertEquals(0, table.fill());
+        assertEquals(0, table.probes());
+    }
+}
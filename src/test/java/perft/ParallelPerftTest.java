@@ -0,0 +1,53 @@
+package perft;
+
+import org.junit.jupiter.api.Test;
+import pieces.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the fork-join parallel perft.
+ */
+public class ParallelPerftTest {
+
+    /**
+     * [BLACKBOX] Test that the parallel counts match the published counts and that the worker counts add up to them.
+     */
+    @Test
+    public void testMatchesSuite() {
+        ParallelPerft perft = new ParallelPerft(4, 1);
+        try {
+            for (int i = 0; i < PerftSuite.FENS.length; i++) {
+                Position pos = Position.fromfen(PerftSuite.FENS[i]);
+                assertEquals(PerftSuite.COUNTS[i][2], perft.perft(pos, 3));
+                assertEquals(PerftSuite.FENS[i], pos.tofen());
+                long total = 0;
+                for (long count : perft.threadcounts()) {
+                    total += count;
+                }
+                assertEquals(PerftSuite.COUNTS[i][2], total);
+            }
+        } finally {
+            perft.shutdown();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test shallow depths that never split, and invalid arguments.
+     */
+    @Test
+    public void testShallowAndInvalid() {
+        ParallelPerft perft = new ParallelPerft(2);
+        try {
+            Position pos = Position.fromfen(Position.STARTFEN);
+            assertEquals(1, perft.perft(pos, 0));
+            assertEquals(20, perft.perft(pos, 1));
+            assertEquals(197281, perft.perft(pos, 4));
+            assertEquals(2, perft.threadcounts().length);
+            assertThrows(IllegalArgumentException.class, () -> perft.perft(pos, -1));
+        } finally {
+            perft.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ParallelPerft(0));
+    }
+}
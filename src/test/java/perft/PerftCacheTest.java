@@ -0,0 +1,103 @@
+package perft;
+
+import org.junit.jupiter.api.Test;
+import pieces.Position;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the shared perft subtree cache.
+ */
+public class PerftCacheTest {
+
+    /**
+     * [BLACKBOX] Test that hashed perft gives the published counts and finds transpositions once the tree is deep enough to have them.
+     */
+    @Test
+    public void testHashedPerft() {
+        PerftCache cache = new PerftCache(4);
+        Perft perft = new Perft(cache);
+        for (int i = 0; i < PerftSuite.FENS.length; i++) {
+            cache.clear();
+            Position pos = Position.fromfen(PerftSuite.FENS[i]);
+            assertEquals(PerftSuite.COUNTS[i][3], perft.perft(pos, 4));
+            assertEquals(PerftSuite.FENS[i], pos.tofen());
+        }
+        cache.clear();
+        assertEquals(PerftSuite.COUNTS[2][4], perft.perft(Position.fromfen(PerftSuite.FENS[2]), 5));
+        assertTrue(cache.hits() > 0);
+        assertTrue(cache.hitrate() > 0 && cache.hitrate() < 1);
+    }
+
+    /**
+     * [BLACKBOX] Test that parallel workers sharing one cache give the published counts.
+     */
+    @Test
+    public void testSharedCache() {
+        PerftCache cache = new PerftCache(4);
+        ParallelPerft perft = new ParallelPerft(4, 2, cache);
+        try {
+            for (int i = 0; i < PerftSuite.FENS.length; i++) {
+                Position pos = Position.fromfen(PerftSuite.FENS[i]);
+                assertEquals(PerftSuite.COUNTS[i][3], perft.perft(pos, 4));
+                long total = 0;
+                for (long count : perft.threadcounts()) {
+                    total += count;
+                }
+                assertEquals(PerftSuite.COUNTS[i][3], total);
+            }
+        } finally {
+            perft.shutdown();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that an entry is only found for its own key and depth, and that the size is a power of two.
+     */
+    @Test
+    public void testGetPut() {
+        PerftCache cache = new PerftCache(1);
+        assertEquals(1 << 16, cache.size());
+        assertEquals(-1, cache.get(12345L, 3));
+        cache.put(12345L, 3, 8902L);
+        assertEquals(8902L, cache.get(12345L, 3));
+        assertEquals(-1, cache.get(12345L, 4));
+        assertEquals(-1, cache.get(12345L + cache.size(), 3));
+        assertEquals(0.25, cache.hitrate());
+        assertThrows(IllegalArgumentException.class, () -> new PerftCache(0));
+    }
+
+    /**
+     * [WHITEBOX] Test that threads writing the same slots at once never read back a count stored under another key.
+     */
+    @Test
+    public void testConcurrentWrites() throws InterruptedException {
+        PerftCache cache = new PerftCache(1);
+        AtomicBoolean wrong = new AtomicBoolean(false);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long seed = t;
+            threads[t] = new Thread(() -> {
+                long x = seed * 0x9E3779B97F4A7C15L + 1;
+                for (int i = 0; i < 200000; i++) {
+                    x ^= x << 13;
+                    x ^= x >>> 7;
+                    x ^= x << 17;
+                    long key = x & 0xFFFFL;
+                    cache.put(key, 2, key * 7);
+                    long count = cache.get(key, 2);
+                    if (count != -1 && count != key * 7) {
+                        wrong.set(true);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(wrong.get());
+    }
+}
@@ -0,0 +1,173 @@
+package perft;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import pieces.Position;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the distributed perft coordinator and its workers, all on localhost.
+ */
+@Timeout(120)
+public class PerftCoordinatorTest {
+
+    private static Thread worker(int port) {
+        Thread thread = new Thread(() -> {
+            try {
+                PerftWorker.run("localhost", port, null);
+            } catch (Exception e) {
+                //The coordinator went away
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * [BLACKBOX] Test that units counted by two workers add up to the published counts.
+     */
+    @Test
+    public void testWorkers() throws Exception {
+        PerftCoordinator coordinator = new PerftCoordinator(0);
+        try {
+            worker(coordinator.port());
+            worker(coordinator.port());
+            assertEquals(197281, coordinator.perft(Position.fromfen(Position.STARTFEN), 4, 2));
+            assertEquals(PerftSuite.COUNTS[1][2], coordinator.perft(Position.fromfen(PerftSuite.FENS[1]), 3, 1));
+            assertEquals(20, coordinator.perft(Position.fromfen(Position.STARTFEN), 1, 2));
+            assertEquals(0, coordinator.failures());
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that a unit given to a worker that drops its connection is counted by another worker.
+     */
+    @Test
+    public void testWorkerFailure() throws Exception {
+        PerftCoordinator coordinator = new PerftCoordinator(0);
+        try {
+            CountDownLatch received = new CountDownLatch(1);
+            Thread faulty = new Thread(() -> {
+                try (Socket socket = new Socket("localhost", coordinator.port())) {
+                    new BufferedReader(new InputStreamReader(socket.getInputStream())).readLine();
+                    received.countDown();
+                } catch (Exception e) {
+                    received.countDown();
+                }
+            });
+            faulty.setDaemon(true);
+            faulty.start();
+            AtomicLong count = new AtomicLong();
+            Thread job = new Thread(() -> {
+                try {
+                    count.set(coordinator.perft(Position.fromfen(PerftSuite.FENS[2]), 4, 1));
+                } catch (InterruptedException e) {
+                    count.set(-1);
+                }
+            });
+            job.start();
+            received.await();
+            worker(coordinator.port());
+            job.join();
+            assertEquals(PerftSuite.COUNTS[2][3], count.get());
+            assertEquals(1, coordinator.failures());
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that a unit given to a worker that stops answering without closing its connection is counted by
+     * another worker.
+     */
+    @Test
+    public void testSilentWorker() throws Exception {
+        PerftCoordinator coordinator = new PerftCoordinator(0);
+        try {
+            coordinator.settimeout(2000);
+            CountDownLatch received = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread silent = new Thread(() -> {
+                try (Socket socket = new Socket("localhost", coordinator.port())) {
+                    new BufferedReader(new InputStreamReader(socket.getInputStream())).readLine();
+                    received.countDown();
+                    release.await();
+                } catch (Exception e) {
+                    received.countDown();
+                }
+            });
+            silent.setDaemon(true);
+            silent.start();
+            AtomicLong count = new AtomicLong();
+            Thread job = new Thread(() -> {
+                try {
+                    count.set(coordinator.perft(Position.fromfen(PerftSuite.FENS[2]), 4, 1));
+                } catch (InterruptedException e) {
+                    count.set(-1);
+                }
+            });
+            job.start();
+            received.await();
+            worker(coordinator.port());
+            job.join();
+            release.countDown();
+            assertEquals(PerftSuite.COUNTS[2][3], count.get());
+            assertEquals(1, coordinator.failures());
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test counting with worker processes started by the coordinator, and that a killed worker process is started again.
+     */
+    @Test
+    public void testSpawnedWorkers() throws Exception {
+        PerftCoordinator coordinator = new PerftCoordinator(0);
+        try {
+            //Any process that exits is started again, however short it ran
+            coordinator.setminuptime(0);
+            coordinator.spawn(2);
+            assertEquals(PerftSuite.COUNTS[3][3], coordinator.perft(Position.fromfen(PerftSuite.FENS[3]), 4, 2));
+            Process killed = coordinator.processes()[0];
+            killed.destroy();
+            killed.waitFor();
+            assertEquals(PerftSuite.COUNTS[4][3], coordinator.perft(Position.fromfen(PerftSuite.FENS[4]), 4, 2));
+            for (int i = 0; i < 100 && coordinator.processes().length < 2; i++) {
+                Thread.sleep(50);
+            }
+            assertEquals(2, coordinator.processes().length);
+            assertFalse(Arrays.asList(coordinator.processes()).contains(killed));
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that a count fails instead of waiting forever when every worker process fails at start.
+     */
+    @Test
+    public void testSpawnedWorkersFail() throws Exception {
+        PerftCoordinator coordinator = new PerftCoordinator(0);
+        try {
+            coordinator.setclasspath("no-such-directory");
+            coordinator.spawn(2);
+            assertThrows(IllegalStateException.class, () -> coordinator.perft(Position.fromfen(Position.STARTFEN), 4, 2));
+            assertEquals(0, coordinator.processes().length);
+            assertThrows(IllegalStateException.class, () -> coordinator.perft(Position.fromfen(Position.STARTFEN), 3, 1));
+        } finally {
+            coordinator.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package perft;
+
+import org.junit.jupiter.api.Test;
+import pieces.Position;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the perft node counter and the standard perft suite.
+ */
+public class PerftTest {
+
+    /**
+     * [BLACKBOX] Test the leaf counts of every standard position at shallow depths against the published values.
+     */
+    @Test
+    public void testSuite() {
+        PerftSuite suite = new PerftSuite(null);
+        assertTrue(suite.run(100000));
+        assertTrue(suite.totalnodes() > 0);
+    }
+
+    /**
+     * [BLACKBOX] Test that depth 0 counts the position itself and that the position is left unchanged.
+     */
+    @Test
+    public void testPerft() {
+        Perft perft = new Perft();
+        Position pos = Position.fromfen(PerftSuite.FENS[1]);
+        assertEquals(1, perft.perft(pos, 0));
+        assertEquals(97862, perft.perft(pos, 3));
+        assertEquals(PerftSuite.FENS[1], pos.tofen());
+        assertThrows(IllegalArgumentException.class, () -> perft.perft(pos, -1));
+    }
+
+    /**
+     * [BLACKBOX] Test that divide splits the count by root move and adds up to the perft count.
+     */
+    @Test
+    public void testDivide() {
+        Perft perft = new Perft();
+        Position pos = Position.fromfen(Position.STARTFEN);
+        Map<String, Long> counts = perft.divide(pos, 3);
+        assertEquals(20, counts.size());
+        assertEquals(Long.valueOf(600), counts.get("e2e4"));
+        assertEquals(Long.valueOf(400), counts.get("b1a3"));
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        assertEquals(8902, total);
+        assertEquals(Long.valueOf(1), perft.divide(pos, 1).get("g1f3"));
+    }
+}
@@ -2,9 +2,12 @@ package pieces;
 
 import chess.Cell;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -17,13 +20,22 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 public class KingTest {
 
+    // Kings do not know their square, so the test remembers where each king it makes stands
+    private static final Map<King, int[]> SQUARES = new IdentityHashMap<>();
+
     private King king;
     private Cell[][] board;
 
+    private static King king(String id, String path, int color, int x, int y) {
+        King k = new King(id, path, color);
+        SQUARES.put(k, new int[]{x, y});
+        return k;
+    }
+
     @BeforeEach
     public void setup() {
         // White king at (3, 4) by default
-        king = new King("WK","/White_King.png", 0, 3, 4);
+        king = king("WK","/White_King.png", 0, 3, 4);
         board = new chess.Cell[8][8];
         for (int i = 0; i < board.length; i++) {
             for (int j = 0; j < board[0].length; j++) {
@@ -40,12 +52,6 @@ public class KingTest {
         assertEquals(king.getcolor(), 0);
     }
 
-    @Test
-    public void testGetXGetY() {
-        assertEquals(3, king.getx());
-        assertEquals(4, king.gety());
-    }
-
     // Added after mutation
     @Test
     public void testKingMove() {
@@ -111,14 +117,43 @@ public class KingTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    public void testKingAttackTable() {
+        assertEquals((1L << 1) | (1L << 8) | (1L << 9), King.attacks(0));
+        assertEquals(5, Long.bitCount(King.attacks(Bitboards.square(7, 4))));
+        assertEquals(8, Long.bitCount(King.attacks(Bitboards.square(3, 4))));
+    }
+
+    @Test
+    public void testKingIsInDangerFindsKingOnBoard() {
+        // The king was made for (3, 4) but stands on (0, 0)
+        board[0][0] = new Cell(0, 0, king);
+        board[0][7] = new Cell(0, 7, new Rook("BR01","/Black_Rook.png", 1));
+        assertTrue(king.isindanger(board));
+        board[3][7] = new Cell(3, 7, new Rook("BR02","/Black_Rook.png", 1));
+        board[0][7] = new Cell(0, 7, null);
+        assertFalse(king.isindanger(board));
+    }
+
+    @Test
+    public void testMoveReturnsNewList() {
+        ArrayList<Cell> first = king.move(board, 7, 7);
+        ArrayList<Cell> second = king.move(board, 0, 0);
+        assertNotSame(first, second);
+        assertEquals(3, first.size());
+        assertTrue(first.contains(board[6][6]));
+    }
+
     @ParameterizedTest
     @MethodSource({"dangerLeftRightUpDown", "dangerDiagonal", "dangerKnight", "dangerKing", "dangerPawn"})
     public void testKingIsInDanger(Piece p, King k, int x, int y, boolean result) {
-        Cell c = new Cell(x, y, p);
-        board[x][y] = c;
         if (k == null) {
             k = king;
         }
+        int[] at = SQUARES.get(k);
+        board[at[0]][at[1]] = new Cell(at[0], at[1], k);
+        Cell c = new Cell(x, y, p);
+        board[x][y] = c;
         assertEquals(result, k.isindanger(board));
     }
 
@@ -163,7 +198,7 @@ public class KingTest {
 		Queen queenb = new Queen("BQ","/Black_Queen.png", 1);
 		Bishop bishopb = new Bishop("BB01","/Black_Bishop.png", 1);
 		Knight knightb = new Knight("BK01","/Black_Knight.png", 1);
-        King king_alt = new King("WK","/White_King.png", 0, 4, 4);
+        King king_alt = king("WK","/White_King.png", 0, 4, 4);
         
         return Stream.of(
             // Top Right
@@ -203,8 +238,8 @@ public class KingTest {
 		Knight knightw = new Knight("WK01","/White_Knight.png", 0);
 		Knight knightb = new Knight("BK01","/Black_Knight.png", 1);
 		Bishop bishopb = new Bishop("BB01","/Black_Bishop.png", 1);
-		King kingw1 = new King("WK","/White_King.png", 0, 1, 1);
-		King kingw2 = new King("WK","/White_King.png", 0, 6, 6);
+		King kingw1 = king("WK","/White_King.png", 0, 1, 1);
+		King kingw2 = king("WK","/White_King.png", 0, 6, 6);
 
         return Stream.of(
             // White Knight
@@ -231,18 +266,18 @@ public class KingTest {
 
     @TestFactory
     private static Stream<Arguments> dangerKing() {
-		King kingw = new King("WK","/White_King.png", 0, 0, 0);
-		King kingb = new King("BK","/Black_King.png", 1, 0, 0);
+		King kingw = king("WK","/White_King.png", 0, 0, 0);
+		King kingb = king("BK","/Black_King.png", 1, 0, 0);
 		Bishop bishopb = new Bishop("BB01","/Black_Bishop.png", 1);
 
-        King king1 = new King("WK","/White_King.png", 0, 0, 0);
-        King king2 = new King("WK","/White_King.png", 0, 7, 7);
-        King king3 = new King("WK","/White_King.png", 0, 0, 7);
-        King king4 = new King("WK","/White_King.png", 0, 7, 0);
-        King king5 = new King("BK","/Black_King.png", 1, 0, 0);
-        King king6 = new King("BK","/Black_King.png", 1, 7, 7);
-        King king7 = new King("BK","/Black_King.png", 1, 0, 7);
-        King king8 = new King("BK","/Black_King.png", 1, 7, 0);
+        King king1 = king("WK","/White_King.png", 0, 0, 0);
+        King king2 = king("WK","/White_King.png", 0, 7, 7);
+        King king3 = king("WK","/White_King.png", 0, 0, 7);
+        King king4 = king("WK","/White_King.png", 0, 7, 0);
+        King king5 = king("BK","/Black_King.png", 1, 0, 0);
+        King king6 = king("BK","/Black_King.png", 1, 7, 7);
+        King king7 = king("BK","/Black_King.png", 1, 0, 7);
+        King king8 = king("BK","/Black_King.png", 1, 7, 0);
         
         return Stream.of(
             // White King
@@ -283,7 +318,7 @@ public class KingTest {
 		Pawn pawnb = new Pawn("BP01","/Black_Pawn.png", 1);
 		Knight knightw = new Knight("WK01","/White_Knight.png", 0);
 		Knight knightb = new Knight("BK01","/Black_Knight.png", 1);
-        King kingb = new King("WK","/White_King.png", 1, 1, 4);
+        King kingb = king("WK","/White_King.png", 1, 1, 4);
         
         return Stream.of(
             // White King
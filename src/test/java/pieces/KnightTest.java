@@ -144,6 +144,18 @@ public class KnightTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    public void testKnightAttackTable() {
+        assertEquals((1L << 10) | (1L << 17), Knight.attacks(0));
+        assertEquals(8, Long.bitCount(Knight.attacks(Bitboards.square(4, 4))));
+        for (int sq = 0; sq < 64; sq++) {
+            for (int target = 0; target < 64; target++) {
+                // Knight attacks are symmetric
+                assertEquals((Knight.attacks(sq) >>> target) & 1, (Knight.attacks(target) >>> sq) & 1);
+            }
+        }
+    }
+
     /* False failure: Move returns results for invalid board position */
     // @Test
     public void testKnightTestInvalidMove() {
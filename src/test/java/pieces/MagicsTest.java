@@ -0,0 +1,51 @@
+package pieces;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testing class for the magic bitboard sliding attack tables.
+ */
+public class MagicsTest {
+
+    private static long slowRook(int sq, long occupied) {
+        return Bitboards.ray(sq, occupied, -1, 0) | Bitboards.ray(sq, occupied, 1, 0)
+                | Bitboards.ray(sq, occupied, 0, -1) | Bitboards.ray(sq, occupied, 0, 1);
+    }
+
+    private static long slowBishop(int sq, long occupied) {
+        return Bitboards.ray(sq, occupied, 1, -1) | Bitboards.ray(sq, occupied, -1, 1)
+                | Bitboards.ray(sq, occupied, -1, -1) | Bitboards.ray(sq, occupied, 1, 1);
+    }
+
+    /**
+     * [BLACKBOX] Test that table lookups agree with walking the rays for random occupancies on every square.
+     */
+    @Test
+    public void testMagicLookupMatchesRays() {
+        Random random = new Random(42);
+        for (int sq = 0; sq < 64; sq++) {
+            for (int i = 0; i < 2000; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                assertEquals(slowRook(sq, occupied), Rook.attacks(sq, occupied));
+                assertEquals(slowBishop(sq, occupied), Bishop.attacks(sq, occupied));
+                assertEquals(slowRook(sq, occupied) | slowBishop(sq, occupied), Queen.attacks(sq, occupied));
+            }
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test sliding attacks on an empty and on a full board.
+     */
+    @Test
+    public void testMagicLookupEdgeCases() {
+        for (int sq = 0; sq < 64; sq++) {
+            assertEquals(14, Long.bitCount(Rook.attacks(sq, 0)));
+            assertEquals(slowBishop(sq, 0), Bishop.attacks(sq, 0));
+            assertEquals(Bitboards.steps(sq, new int[]{-1, 1, 0, 0}, new int[]{0, 0, -1, 1}), Rook.attacks(sq, -1L));
+        }
+    }
+}
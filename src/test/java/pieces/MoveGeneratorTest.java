@@ -0,0 +1,332 @@
+package pieces;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the packed move encoding, the MoveList buffer and the whole-position move generator.
+ */
+public class MoveGeneratorTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static Set<String> generate(String fen) {
+        MoveList list = new MoveList();
+        MoveGenerator.generate(Position.fromfen(fen), list);
+        Set<String> moves = new HashSet<>();
+        for (int i = 0; i < list.size(); i++) {
+            moves.add(Move.tostring(list.get(i)));
+        }
+        assertEquals(list.size(), moves.size());
+        return moves;
+    }
+
+    /**
+     * [BLACKBOX] Test that a move survives packing and unpacking.
+     */
+    @Test
+    public void testMovePacking() {
+        int move = Move.make(52, 36, Move.DOUBLE_PUSH);
+        assertEquals(52, Move.from(move));
+        assertEquals(36, Move.to(move));
+        assertEquals(Move.DOUBLE_PUSH, Move.flags(move));
+        assertEquals("e2e4", Move.tostring(move));
+        assertFalse(Move.iscapture(move));
+        int promotion = Move.make(12, 5, Move.PROMOTION_CAPTURE + 3);
+        assertTrue(Move.iscapture(promotion));
+        assertTrue(Move.ispromotion(promotion));
+        assertEquals(Position.QUEEN, Move.promotion(promotion));
+        assertEquals("e7f8q", Move.tostring(promotion));
+        assertTrue(Move.iscastle(Move.make(60, 62, Move.KING_CASTLE)));
+    }
+
+    /**
+     * [BLACKBOX] Test that clearing a move list keeps it reusable.
+     */
+    @Test
+    public void testMoveListReuse() {
+        MoveList list = new MoveList();
+        MoveGenerator.generate(Position.fromfen(Position.STARTFEN), list);
+        assertEquals(20, list.size());
+        list.clear();
+        assertTrue(list.isempty());
+        MoveGenerator.generate(Position.fromfen(KIWIPETE), list);
+        assertEquals(48, list.size());
+        assertTrue(list.contains(Move.make(60, 62, Move.KING_CASTLE)));
+        assertTrue(list.contains(Move.make(60, 58, Move.QUEEN_CASTLE)));
+    }
+
+    /**
+     * [BLACKBOX] Test promotions, including promotions by capture, for Black.
+     */
+    @Test
+    public void testPromotions() {
+        Set<String> moves = generate("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1");
+        assertEquals(25, moves.size());
+        assertTrue(moves.contains("g2g1q"));
+        assertTrue(moves.contains("g2g1n"));
+        assertTrue(moves.contains("g2h1r"));
+        assertTrue(moves.contains("g2f1b"));
+        assertFalse(moves.contains("h2h1q"));
+    }
+
+    /**
+     * [BLACKBOX] Test that en passant captures carry their flag.
+     */
+    @Test
+    public void testEnPassant() {
+        MoveList list = new MoveList();
+        MoveGenerator.generate(Position.fromfen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2"), list);
+        assertEquals(7, list.size());
+        assertTrue(list.contains(Move.make(28, 19, Move.EP_CAPTURE)));
+    }
+
+    /**
+     * [BLACKBOX] Test that the moves of every piece on the board match what the generator produces for the position.
+     */
+    @Test
+    public void testPieceMovesMatchGenerator() {
+        Position pos = Position.fromfen(KIWIPETE);
+        Piece[] pieces = {
+                new Pawn("WP01", "/White_Pawn.png", 0),
+                new Knight("WK01", "/White_Knight.png", 0),
+                new Bishop("WB01", "/White_Bishop.png", 0),
+                new Rook("WR01", "/White_Rook.png", 0),
+                new Queen("WQ", "/White_Queen.png", 0),
+                new King("WK", "/White_King.png", 0, 7, 4)
+        };
+        MoveList all = new MoveList();
+        MoveGenerator.generate(pos, all);
+        MoveList list = new MoveList();
+        for (int sq = 0; sq < 64; sq++) {
+            if (pos.colorat(sq) == Position.WHITE) {
+                pieces[pos.pieceat(sq)].move(pos, sq, list);
+            }
+        }
+        assertEquals(all.size(), list.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertTrue(all.contains(list.get(i)));
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that the legal generator gives exactly the pseudo-legal moves that do not leave the king in check.
+     */
+    @Test
+    public void testLegalMatchesFilteredMoves() {
+        String[] fens = {
+                Position.STARTFEN,
+                KIWIPETE,
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "8/8/8/K2pP2q/8/8/8/7k w - d6 0 2",
+                "4k3/8/8/8/1b6/8/3P4/4K2r w - - 0 1",
+                "4k3/4r3/8/8/8/R4n2/8/4K3 w - - 0 1"
+        };
+        for (String fen : fens) {
+            Position pos = Position.fromfen(fen);
+            MoveList pseudo = new MoveList();
+            MoveList legal = new MoveList();
+            MoveGenerator.generate(pos, pseudo);
+            MoveGenerator.legal(pos, legal);
+            int count = 0;
+            for (int i = 0; i < pseudo.size(); i++) {
+                pos.makeMove(pseudo.get(i));
+                boolean ok = !pos.incheck(pos.side() ^ 1);
+                pos.unmakeMove(pseudo.get(i));
+                assertEquals(ok, legal.contains(pseudo.get(i)), fen + " " + Move.tostring(pseudo.get(i)));
+                count += ok ? 1 : 0;
+            }
+            assertEquals(count, legal.size(), fen);
+            assertEquals(fen, pos.tofen());
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that the capture generator gives exactly the legal captures and promotions.
+     */
+    @Test
+    public void testCapturesMatchLegal() {
+        String[] fens = {
+                KIWIPETE,
+                "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+                "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2",
+                "4k3/8/8/8/1b6/8/3P4/4K2r w - - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "8/8/8/8/8/8/8/r3K2R w K - 0 1"
+        };
+        for (String fen : fens) {
+            Position pos = Position.fromfen(fen);
+            MoveList legal = new MoveList();
+            MoveList captures = new MoveList();
+            MoveGenerator.legal(pos, legal);
+            MoveGenerator.captures(pos, captures);
+            int count = 0;
+            for (int i = 0; i < legal.size(); i++) {
+                int move = legal.get(i);
+                boolean capture = Move.iscapture(move) || Move.ispromotion(move);
+                assertEquals(capture, captures.contains(move), fen + " " + Move.tostring(move));
+                count += capture ? 1 : 0;
+            }
+            assertEquals(count, captures.size(), fen);
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that the captures and the quiet moves together are exactly the legal moves.
+     */
+    @Test
+    public void testQuietsAndCapturesSplitLegal() {
+        String[] fens = {Position.STARTFEN, KIWIPETE, "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1", "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2",
+                "4k3/8/8/8/1b6/8/3P4/4K2r w - - 0 1", "8/8/8/8/8/8/8/r3K2R w K - 0 1"};
+        for (String fen : fens) {
+            Position pos = Position.fromfen(fen);
+            MoveList legal = new MoveList();
+            MoveList split = new MoveList();
+            MoveGenerator.legal(pos, legal);
+            MoveGenerator.captures(pos, split);
+            int captures = split.size();
+            MoveGenerator.quiets(pos, split);
+            assertEquals(legal.size(), split.size(), fen);
+            for (int i = 0; i < split.size(); i++) {
+                assertTrue(legal.contains(split.get(i)), fen);
+                assertEquals(i < captures, Move.iscapture(split.get(i)) || Move.ispromotion(split.get(i)), fen);
+            }
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that islegal accepts the legal moves of a position and rejects moves taken from other positions.
+     */
+    @Test
+    public void testIsLegal() {
+        String[] fens = {Position.STARTFEN, KIWIPETE, "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1", "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2",
+                "8/8/8/K2pP2q/8/8/8/7k w - d6 0 2", "4k3/8/8/8/1b6/8/3P4/4K2r w - - 0 1", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"};
+        Set<Integer> all = new HashSet<>();
+        for (String fen : fens) {
+            Position pos = Position.fromfen(fen);
+            for (int side = 0; side < 2; side++) {
+                MoveList list = new MoveList();
+                MoveGenerator.generate(pos, list);
+                for (int i = 0; i < list.size(); i++) {
+                    all.add(list.get(i));
+                }
+                pos.setside(pos.side() ^ 1);
+            }
+        }
+        for (String fen : fens) {
+            Position pos = Position.fromfen(fen);
+            MoveList legal = new MoveList();
+            MoveGenerator.legal(pos, legal);
+            for (int move : all) {
+                assertEquals(legal.contains(move), MoveGenerator.islegal(pos, move), fen + " " + Move.tostring(move));
+            }
+            assertFalse(MoveGenerator.islegal(pos, Move.NONE));
+            assertEquals(fen, pos.tofen());
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test pins, double check and an en passant capture that would expose the king along its row.
+     */
+    @Test
+    public void testLegalSpecialCases() {
+        Position pos = Position.fromfen("8/8/8/K2pP2q/8/8/8/7k w - d6 0 2");
+        assertEquals(1L << 20, MoveGenerator.legaldestinations(pos, 28));
+        pos = Position.fromfen("4r1k1/8/8/8/8/8/4R3/4K3 w - - 0 1");
+        assertEquals(Bitboards.between(60, 4) & ~(1L << 52) | (1L << 4), MoveGenerator.legaldestinations(pos, 52));
+        pos = Position.fromfen("4k3/4r3/8/8/8/R4n2/8/4K3 w - - 0 1");
+        MoveList list = new MoveList();
+        MoveGenerator.legal(pos, list);
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(60, Move.from(list.get(i)));
+        }
+        assertEquals(3, list.size());
+    }
+
+    /**
+     * [BLACKBOX] Test the game status of checkmate, stalemate and ongoing positions, including the fastest mate.
+     */
+    @Test
+    public void testStatus() {
+        assertEquals(MoveGenerator.ONGOING, MoveGenerator.status(Position.fromfen(Position.STARTFEN)));
+        assertEquals(MoveGenerator.CHECKMATE, MoveGenerator.status(Position.fromfen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1")));
+        assertEquals(MoveGenerator.CHECKMATE, MoveGenerator.status(Position.fromfen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3")));
+        assertEquals(MoveGenerator.STALEMATE, MoveGenerator.status(Position.fromfen("3k4/3P4/3K4/8/8/8/8/8 b - - 0 1")));
+        assertEquals(MoveGenerator.STALEMATE, MoveGenerator.status(Position.fromfen("k7/8/1Q6/8/8/8/8/7K b - - 0 1")));
+    }
+
+    /**
+     * [BLACKBOX] Test that haslegalmove agrees with the legal generator along random games.
+     */
+    @Test
+    public void testHasLegalMoveMatchesLegal() {
+        Random random = new Random(9);
+        MoveList list = new MoveList();
+        for (int game = 0; game < 50; game++) {
+            Position pos = Position.fromfen(KIWIPETE);
+            for (int ply = 0; ply < 80; ply++) {
+                list.clear();
+                MoveGenerator.legal(pos, list);
+                assertEquals(!list.isempty(), MoveGenerator.haslegalmove(pos), pos.tofen());
+                if (list.isempty()) {
+                    break;
+                }
+                pos.makeMove(list.get(random.nextInt(list.size())));
+            }
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that threads sharing the same piece objects get the same moves as a single thread.
+     */
+    @Test
+    public void testSharedPiecesAcrossThreads() throws InterruptedException {
+        Piece[] pieces = {
+                new Pawn("WP01", "/White_Pawn.png", 0),
+                new Knight("WK01", "/White_Knight.png", 0),
+                new Bishop("WB01", "/White_Bishop.png", 0),
+                new Rook("WR01", "/White_Rook.png", 0),
+                new Queen("WQ", "/White_Queen.png", 0),
+                new King("WK", "/White_King.png", 0, 7, 4)
+        };
+        String[] fens = {Position.STARTFEN, KIWIPETE, "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"};
+        long[][] expected = new long[fens.length][64];
+        for (int f = 0; f < fens.length; f++) {
+            Position pos = Position.fromfen(fens[f]);
+            for (int sq = 0; sq < 64; sq++) {
+                if (pos.colorat(sq) == Position.WHITE) {
+                    expected[f][sq] = pieces[pos.pieceat(sq)].destinations(pos, sq);
+                }
+            }
+        }
+        AtomicBoolean wrong = new AtomicBoolean(false);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    int f = (i + offset) % fens.length;
+                    Position pos = Position.fromfen(fens[f]);
+                    for (int sq = 0; sq < 64; sq++) {
+                        if (pos.colorat(sq) == Position.WHITE && pieces[pos.pieceat(sq)].destinations(pos, sq) != expected[f][sq]) {
+                            wrong.set(true);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(wrong.get());
+    }
+}
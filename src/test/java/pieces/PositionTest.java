@@ -0,0 +1,236 @@
+package pieces;
+
+import chess.Cell;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the headless bitboard Position and the piece move generators running on it.
+ */
+public class PositionTest {
+
+    private static long squares(int... sqs) {
+        long b = 0;
+        for (int sq : sqs) {
+            b |= 1L << sq;
+        }
+        return b;
+    }
+
+    /**
+     * [BLACKBOX] Test that the start position survives a FEN round trip.
+     */
+    @Test
+    public void testFenRoundTrip() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        assertEquals(Position.STARTFEN, Position.fromfen(Position.STARTFEN).tofen());
+        assertEquals(fen, Position.fromfen(fen).tofen());
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+                Position.fromfen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1").tofen());
+    }
+
+    /**
+     * [BLACKBOX] Test that an invalid FEN is rejected.
+     */
+    @Test
+    public void testInvalidFen() {
+        assertThrows(IllegalArgumentException.class, () -> Position.fromfen("8/8/8 w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Position.fromfen("8/8/8/8/8/8/8/7x w - - 0 1"));
+    }
+
+    /**
+     * [BLACKBOX] Test that a position read off the GUI cells has the same pieces as the cells.
+     */
+    @Test
+    public void testPositionFromCells() {
+        Cell[][] board = new Cell[8][8];
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                board[i][j] = new Cell(i, j, null);
+            }
+        }
+        board[7][3] = new Cell(7, 3, new King("WK", "/White_King.png", 0, 7, 3));
+        board[0][4] = new Cell(0, 4, new Queen("BQ", "/Black_Queen.png", 1));
+        board[6][0] = new Cell(6, 0, new Pawn("WP01", "/White_Pawn.png", 0));
+        Position pos = new Position(board, 1);
+        assertEquals(Position.KING, pos.pieceat(59));
+        assertEquals(Position.WHITE, pos.colorat(59));
+        assertEquals(Position.QUEEN, pos.pieceat(4));
+        assertEquals(Position.BLACK, pos.colorat(4));
+        assertEquals(Position.PAWN, pos.pieceat(48));
+        assertEquals(-1, pos.pieceat(0));
+        assertEquals(-1, pos.colorat(0));
+        assertEquals(59, pos.kingsquare(Position.WHITE));
+        assertEquals(Position.NOSQUARE, pos.kingsquare(Position.BLACK));
+        assertEquals(Position.BLACK, pos.side());
+    }
+
+    /**
+     * [BLACKBOX] Test the destinations of every piece type on the start position.
+     */
+    @Test
+    public void testStartPositionDestinations() {
+        Position pos = Position.fromfen(Position.STARTFEN);
+        assertEquals(squares(40, 32), new Pawn("WP01", "/White_Pawn.png", 0).destinations(pos, 48));
+        assertEquals(squares(16, 24), new Pawn("BP01", "/Black_Pawn.png", 1).destinations(pos, 8));
+        assertEquals(squares(40, 42), new Knight("WK01", "/White_Knight.png", 0).destinations(pos, 57));
+        assertEquals(0, new Bishop("WB01", "/White_Bishop.png", 0).destinations(pos, 58));
+        assertEquals(0, new Rook("WR01", "/White_Rook.png", 0).destinations(pos, 56));
+        assertEquals(0, new Queen("WQ", "/White_Queen.png", 0).destinations(pos, 59));
+        assertEquals(0, new King("WK", "/White_King.png", 0, 7, 4).destinations(pos, 60));
+    }
+
+    /**
+     * [BLACKBOX] Test that en passant captures are generated only for the side to move.
+     */
+    @Test
+    public void testEnPassantDestination() {
+        Position pos = Position.fromfen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        Pawn pawn = new Pawn("WP01", "/White_Pawn.png", 0);
+        assertEquals(squares(20, 19), pawn.destinations(pos, 28));
+        pos.setside(Position.BLACK);
+        assertEquals(squares(20), pawn.destinations(pos, 28));
+    }
+
+    /**
+     * [BLACKBOX] Test castling destinations, including castling out of or through check.
+     */
+    @Test
+    public void testCastlingDestinations() {
+        King king = new King("WK", "/White_King.png", 0, 7, 4);
+        Position pos = Position.fromfen("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        assertEquals(squares(51, 52, 53, 59, 61, 58, 62), king.destinations(pos, 60));
+        pos = Position.fromfen("4k3/8/8/8/8/8/8/R3K2R w - - 0 1");
+        assertEquals(squares(51, 52, 53, 59, 61), king.destinations(pos, 60));
+        pos = Position.fromfen("4k3/8/8/8/8/8/5r2/R3K2R w KQ - 0 1");
+        assertEquals(squares(51, 52, 53, 59, 61, 58), king.destinations(pos, 60));
+        pos = Position.fromfen("4k3/8/8/8/4r3/8/8/R3K2R w KQ - 0 1");
+        assertEquals(squares(51, 52, 53, 59, 61), king.destinations(pos, 60));
+    }
+
+    /**
+     * [BLACKBOX] Test attack detection and check detection on the position.
+     */
+    @Test
+    public void testIsAttacked() {
+        Position pos = Position.fromfen("4k3/8/8/8/1b6/8/3P4/4K2r w - - 0 1");
+        assertTrue(pos.incheck(Position.WHITE));
+        assertFalse(pos.incheck(Position.BLACK));
+        assertTrue(pos.isattacked(51, Position.BLACK));
+        assertFalse(pos.isattacked(60 - 16, Position.BLACK));
+        assertTrue(pos.isattacked(44, Position.WHITE));
+        assertTrue(pos.isattacked(42, Position.WHITE));
+    }
+
+    /**
+     * [BLACKBOX] Test that every move of several positions is taken back exactly by unmakeMove.
+     */
+    @Test
+    public void testMakeUnmakeRestoresPosition() {
+        String[] fens = {
+                Position.STARTFEN,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2"
+        };
+        for (String fen : fens) {
+            Position pos = Position.fromfen(fen);
+            MoveList list = new MoveList();
+            MoveGenerator.generate(pos, list);
+            for (int i = 0; i < list.size(); i++) {
+                pos.makeMove(list.get(i));
+                assertEquals(1, pos.ply());
+                pos.unmakeMove(list.get(i));
+                assertEquals(fen, pos.tofen());
+                assertEquals(0, pos.ply());
+            }
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that castling moves the rook and clears the castling rights of the side that castled.
+     */
+    @Test
+    public void testMakeCastling() {
+        Position pos = Position.fromfen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        pos.makeMove(Move.make(60, 62, Move.KING_CASTLE));
+        assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 1 1", pos.tofen());
+        pos.makeMove(Move.make(4, 2, Move.QUEEN_CASTLE));
+        assertEquals("2kr3r/8/8/8/8/8/8/R4RK1 w - - 2 2", pos.tofen());
+    }
+
+    /**
+     * [BLACKBOX] Test en passant capture, double pushes and promotion by capture.
+     */
+    @Test
+    public void testMakeSpecialMoves() {
+        Position pos = Position.fromfen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        pos.makeMove(Move.make(28, 19, Move.EP_CAPTURE));
+        assertEquals("4k3/8/3P4/8/8/8/8/4K3 b - - 0 2", pos.tofen());
+        pos = Position.fromfen(Position.STARTFEN);
+        pos.makeMove(Move.make(52, 36, Move.DOUBLE_PUSH));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", pos.tofen());
+        pos = Position.fromfen("r3k3/1P6/8/8/8/8/8/4K3 w q - 0 1");
+        pos.makeMove(Move.make(9, 0, Move.PROMOTION_CAPTURE + 3));
+        assertEquals("Q3k3/8/8/8/8/8/8/4K3 b - - 0 1", pos.tofen());
+    }
+
+    /**
+     * [BLACKBOX] Test that the attack maps agree with the attackers of every square, also after moves are taken back.
+     */
+    @Test
+    public void testAttackMaps() {
+        Position pos = Position.fromfen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveList list = new MoveList();
+        MoveGenerator.generate(pos, list);
+        long white = pos.attacks(Position.WHITE);
+        long black = pos.attacks(Position.BLACK);
+        for (int i = 0; i < list.size(); i++) {
+            pos.makeMove(list.get(i));
+            for (int color = 0; color < 2; color++) {
+                long map = pos.attacks(color);
+                for (int sq = 0; sq < 64; sq++) {
+                    assertEquals(pos.attackers(sq, color, pos.occupied()) != 0, (map & (1L << sq)) != 0);
+                    assertEquals((map & (1L << sq)) != 0, pos.isattacked(sq, color));
+                }
+            }
+            pos.unmakeMove(list.get(i));
+            assertEquals(white, pos.attacks(Position.WHITE));
+            assertEquals(black, pos.attacks(Position.BLACK));
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that a null move only hands the turn over and clears en passant, and that it is taken back exactly.
+     */
+    @Test
+    public void testNullMove() {
+        String fen = "4k3/8/8/3pP3/8/8/8/4K3 w - d6 3 2";
+        Position pos = Position.fromfen(fen);
+        long key = pos.key();
+        pos.makenull();
+        assertEquals(Position.BLACK, pos.side());
+        assertEquals(Position.NOSQUARE, pos.epsquare());
+        assertEquals(0, pos.halfmoves());
+        assertEquals(Zobrist.key(pos), pos.key());
+        assertFalse(pos.isrepetition());
+        pos.unmakenull();
+        assertEquals(key, pos.key());
+        assertEquals(fen, pos.tofen());
+    }
+
+    /**
+     * [BLACKBOX] Test that every piece carries the type code of its class.
+     */
+    @Test
+    public void testPieceTypeCodes() {
+        assertEquals(Position.PAWN, new Pawn("WP01", "/White_Pawn.png", 0).gettype());
+        assertEquals(Position.KNIGHT, new Knight("BK01", "/Black_Knight.png", 1).gettype());
+        assertEquals(Position.BISHOP, new Bishop("WB01", "/White_Bishop.png", 0).gettype());
+        assertEquals(Position.ROOK, new Rook("BR01", "/Black_Rook.png", 1).gettype());
+        assertEquals(Position.QUEEN, new Queen("WQ", "/White_Queen.png", 0).gettype());
+        assertEquals(Position.KING, new King("BK", "/Black_King.png", 1).gettype());
+        assertEquals(Position.ROOK, new Rook("WR01", "/White_Rook.png", 0).gettype());
+    }
+}
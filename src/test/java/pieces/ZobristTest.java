@@ -0,0 +1,102 @@
+package pieces;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing class for the Zobrist keys of a Position.
+ */
+public class ZobristTest {
+
+    /**
+     * [BLACKBOX] Test that the key kept up by makeMove and unmakeMove always matches the key computed from scratch.
+     */
+    @Test
+    public void testIncrementalKey() {
+        Random random = new Random(6);
+        String[] fens = {
+                Position.STARTFEN,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"
+        };
+        for (String fen : fens) {
+            for (int game = 0; game < 20; game++) {
+                Position pos = Position.fromfen(fen);
+                int[] played = new int[40];
+                long[] keys = new long[40];
+                int n = 0;
+                MoveList list = new MoveList();
+                while (n < played.length) {
+                    list.clear();
+                    MoveGenerator.generate(pos, list);
+                    if (list.isempty()) {
+                        break;
+                    }
+                    keys[n] = pos.key();
+                    played[n] = list.get(random.nextInt(list.size()));
+                    pos.makeMove(played[n++]);
+                    assertEquals(Zobrist.key(pos), pos.key());
+                    if (pos.kingsquare(Position.WHITE) == Position.NOSQUARE || pos.kingsquare(Position.BLACK) == Position.NOSQUARE) {
+                        break;
+                    }
+                }
+                while (n > 0) {
+                    pos.unmakeMove(played[--n]);
+                    assertEquals(keys[n], pos.key());
+                }
+                assertEquals(fen, pos.tofen());
+            }
+        }
+    }
+
+    /**
+     * [BLACKBOX] Test that the side to move, the castling rights and the en passant file all change the key.
+     */
+    @Test
+    public void testKeyState() {
+        long start = Position.fromfen(Position.STARTFEN).key();
+        assertNotEquals(start, Position.fromfen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR b KQkq - 0 1").key());
+        assertNotEquals(start, Position.fromfen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w Kkq - 0 1").key());
+        assertNotEquals(Position.fromfen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1").key(),
+                Position.fromfen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1").key());
+        assertEquals(start, Position.fromfen(Position.STARTFEN).key());
+        Position pos = Position.fromfen(Position.STARTFEN);
+        pos.setside(Position.BLACK);
+        pos.setcastling(0);
+        pos.setepsquare(44);
+        assertEquals(Zobrist.key(pos), pos.key());
+        pos.remove(60);
+        assertEquals(Zobrist.key(pos), pos.key());
+        assertEquals(Zobrist.key(pos), new Position(pos).key());
+    }
+
+    /**
+     * [BLACKBOX] Test that transposed move orders give the same key and that a repeated position is detected.
+     */
+    @Test
+    public void testTranspositionAndRepetition() {
+        Position a = Position.fromfen(Position.STARTFEN);
+        Position b = Position.fromfen(Position.STARTFEN);
+        a.makeMove(Move.make(62, 45, Move.QUIET));
+        a.makeMove(Move.make(6, 21, Move.QUIET));
+        a.makeMove(Move.make(57, 42, Move.QUIET));
+        b.makeMove(Move.make(57, 42, Move.QUIET));
+        b.makeMove(Move.make(6, 21, Move.QUIET));
+        b.makeMove(Move.make(62, 45, Move.QUIET));
+        assertEquals(a.key(), b.key());
+        assertFalse(a.isrepetition());
+        Position c = Position.fromfen(Position.STARTFEN);
+        c.makeMove(Move.make(62, 45, Move.QUIET));
+        c.makeMove(Move.make(6, 21, Move.QUIET));
+        c.makeMove(Move.make(45, 62, Move.QUIET));
+        assertFalse(c.isrepetition());
+        c.makeMove(Move.make(21, 6, Move.QUIET));
+        assertTrue(c.isrepetition());
+        assertEquals(Position.fromfen(Position.STARTFEN).key(), c.key());
+        c.makeMove(Move.make(52, 36, Move.DOUBLE_PUSH));
+        assertFalse(c.isrepetition());
+    }
+}